@@ -0,0 +1,71 @@
+package net.jun.springboottest.benchmark;
+
+import net.jun.springboottest.autocomplete.PrefixIndex;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete lookups against an index of synthetic employees, with a trickle of updates sitting in the overlay.
+ * The index footprint is logged at teardown; compare it with the same employees held as entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AutocompleteIndexBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(AutocompleteIndexBenchmark.class);
+
+    private static final String[] FIRST_NAMES = {"james", "mary", "john", "patricia", "robert", "jennifer", "michael",
+            "linda", "david", "elizabeth", "william", "barbara", "richard", "susan", "joseph", "jessica"};
+    private static final String[] LAST_NAMES = {"smith", "johnson", "williams", "brown", "jones", "garcia", "miller",
+            "davis", "rodriguez", "martinez", "hernandez", "lopez", "gonzalez", "wilson", "anderson", "thomas"};
+    private static final int OVERLAY_SIZE = 1_000;
+
+    @Param({"100000", "1000000"})
+    public int employees;
+
+    private PrefixIndex index;
+    private String[] prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new PrefixIndex();
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        for (long id = 1; id <= employees; id++) {
+            builder.add(id, terms(id));
+        }
+        index.replaceSnapshot(builder);
+        for (long id = 1; id <= OVERLAY_SIZE; id++) {
+            index.put(id * (employees / OVERLAY_SIZE), terms(id + employees));
+        }
+
+        prefixes = new String[1024];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = random.nextBoolean() ? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                    : LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            prefixes[i] = name.substring(0, 1 + random.nextInt(Math.min(4, name.length())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        log.info("{} employees: {} terms, {} KB", employees, index.size(), index.sizeInBytes() / 1024);
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Match> suggest() {
+        return index.search(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 10);
+    }
+
+    private static List<String> terms(long id) {
+        String first = FIRST_NAMES[(int) (id % FIRST_NAMES.length)];
+        String last = LAST_NAMES[(int) (id / FIRST_NAMES.length % LAST_NAMES.length)];
+        return List.of(first + "." + last + id + "@example.com", first, last);
+    }
+}
@@ -0,0 +1,69 @@
+package net.jun.springboottest.benchmark;
+
+import net.jun.springboottest.SpringBootTestApplication;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without a web server against an in-memory H2 database (MySQL mode), so benchmarks run
+ * offline and every trial starts from a fresh schema.
+ */
+final class BenchmarkContexts {
+
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        // passed as command-line arguments, which outrank application.yml; default properties would not
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.hbm2ddl.auto=create-drop",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(SpringBootTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Inserts {@code count} employees through the bulk path and returns their ids.
+     */
+    static long[] populate(EmployeeService employeeService, int count) {
+        long[] ids = new long[count];
+        int inserted = 0;
+        while (inserted < count) {
+            List<Employee> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+            for (int i = inserted; i < Math.min(count, inserted + INSERT_CHUNK_SIZE); i++) {
+                chunk.add(employee(i));
+            }
+            for (var result : employeeService.saveEmployees(chunk)) {
+                ids[inserted++] = result.id();
+            }
+        }
+        return ids;
+    }
+
+    static Employee employee(long n) {
+        return Employee.builder()
+                .firstName("First" + n)
+                .lastName("Last" + (n % 1000))
+                .email("employee" + n + "@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package net.jun.springboottest.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jun.springboottest.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the whole employee table as JSON the way {@code GET /api/employees} does, from a list of entities, and the
+ * way {@code GET /api/employees?stream=true} does, from the JDBC rows. Run with the gc profiler (the default in
+ * build.gradle) to compare allocation per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmployeeListWriteBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tableSize;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("listwrite" + tableSize + gzip, "spring.cache.type=none");
+        employeeService = context.getBean(EmployeeService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        BenchmarkContexts.populate(employeeService, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long entityList() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (OutputStream target = target(counter)) {
+            objectMapper.writeValue(target, employeeService.getAllEmployees());
+        }
+        return counter.count;
+    }
+
+    @Benchmark
+    public long streamedRows() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(target(counter))) {
+            employeeService.writeEmployeesAsJson(generator);
+        }
+        return counter.count;
+    }
+
+    private OutputStream target(CountingOutputStream counter) throws IOException {
+        return gzip ? new GZIPOutputStream(counter, 8192) : counter;
+    }
+
+    /**
+     * Stands in for the socket: counts the bytes so the work cannot be optimized away.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.jun.springboottest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jun.springboottest.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<Employee> employees;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // same defaults Spring Boot applies to the mapper used by the controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employees = new ArrayList<>(listSize);
+        for (long i = 0; i < listSize; i++) {
+            Employee employee = BenchmarkContexts.employee(i);
+            employee.setId(i + 1);
+            employees.add(employee);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeEmployeeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+}
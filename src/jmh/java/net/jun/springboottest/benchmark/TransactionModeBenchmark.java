@@ -0,0 +1,60 @@
+package net.jun.springboottest.benchmark;
+
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the same page of employees in a read-only and in a read-write transaction. The read-write variant pays
+ * for the loaded-state snapshots and for dirty checking them at flush, which grows with the page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionModeBenchmark {
+
+    private static final int TABLE_SIZE = 10_000;
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("transactions" + pageSize, "spring.cache.type=none");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        BenchmarkContexts.populate(context.getBean(EmployeeService.class), TABLE_SIZE);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> readOnlyTransaction() {
+        return readOnly.execute(status -> employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(pageSize)));
+    }
+
+    @Benchmark
+    public List<Employee> readWriteTransaction() {
+        return readWrite.execute(status -> employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(pageSize)));
+    }
+}
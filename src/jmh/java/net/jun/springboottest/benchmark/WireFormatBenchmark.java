@@ -0,0 +1,83 @@
+package net.jun.springboottest.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jun.springboottest.codec.CborMessageConverter;
+import net.jun.springboottest.codec.SmileMessageConverter;
+import net.jun.springboottest.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of an employee list in each format the API offers, with the mappers the application's
+ * converters use. The encoded size of each list is logged at setup; the gc profiler adds the bytes allocated per
+ * operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "10000"})
+    public int listSize;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private List<Employee> employees;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Boot's customizers and spring.jackson settings only reach mappers built in its context
+        context = BenchmarkContexts.start("wireformat" + format + listSize,
+                "logging.level.net.jun.springboottest.benchmark=INFO");
+        mapper = switch (format) {
+            case "cbor" -> context.getBean(CborMessageConverter.class).getObjectMapper();
+            case "smile" -> context.getBean(SmileMessageConverter.class).getObjectMapper();
+            default -> context.getBean(ObjectMapper.class);
+        };
+        Instant updatedAt = Instant.parse("2024-01-01T00:00:00.123456Z");
+        employees = new ArrayList<>(listSize);
+        for (long i = 0; i < listSize; i++) {
+            Employee employee = BenchmarkContexts.employee(i);
+            employee.setId(i + 1);
+            employee.setVersion(i % 5);
+            employee.setUpdatedAt(updatedAt.plusSeconds(i));
+            employees.add(employee);
+        }
+        encoded = mapper.writeValueAsBytes(employees);
+        log.info("{}, {} employees: {} bytes ({} per employee)",
+                format, listSize, encoded.length, String.format("%.1f", (double) encoded.length / listSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> decode() throws IOException {
+        return mapper.readValue(encoded, EMPLOYEE_LIST);
+    }
+}
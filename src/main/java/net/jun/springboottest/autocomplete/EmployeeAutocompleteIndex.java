@@ -0,0 +1,99 @@
+package net.jun.springboottest.autocomplete;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.jun.springboottest.dto.EmployeeSuggestion;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead over employee emails, first names and last names, answered from memory. The index is built from a
+ * streamed scan once the application is ready (readiness waits for it) and then follows committed writes.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class EmployeeAutocompleteIndex implements MeterBinder {
+
+    private final EmployeeService employeeService;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate reloadTransaction;
+    private final PrefixIndex index = new PrefixIndex();
+
+    public EmployeeAutocompleteIndex(EmployeeService employeeService, EmployeeRepository employeeRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        // the committed transaction is still bound while AFTER_COMMIT listeners run, so reads need their own
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reloadTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        employeeService.forEachEmployee(employee -> builder.add(employee.getId(), terms(employee)));
+        index.replaceSnapshot(builder);
+        log.info("Autocomplete index built with {} terms ({} KB) in {} ms", index.size(), index.sizeInBytes() / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.type() == EmployeeChangedEvent.Type.DELETED) {
+            index.remove(event.id());
+            return;
+        }
+        Employee employee = event.employee() != null
+                ? event.employee()
+                : reloadTransaction.execute(status -> employeeRepository.findById(event.id()).orElse(null));
+        if (employee == null) {
+            index.remove(event.id());
+        } else {
+            index.put(employee.getId(), terms(employee));
+        }
+    }
+
+    public List<EmployeeSuggestion> suggest(String prefix, int limit) {
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        return index.search(prefix.strip(), limit).stream()
+                .map(match -> new EmployeeSuggestion(match.id(), match.term()))
+                .toList();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.autocomplete.index.size", index, PrefixIndex::sizeInBytes)
+                .description("Approximate heap held by the autocomplete index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("employee.autocomplete.index.terms", index, PrefixIndex::size)
+                .description("Terms in the autocomplete index")
+                .register(registry);
+    }
+
+    private static List<String> terms(Employee employee) {
+        return Arrays.asList(employee.getEmail(), employee.getFirstName(), employee.getLastName());
+    }
+}
@@ -0,0 +1,384 @@
+package net.jun.springboottest.autocomplete;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maps terms to ids for prefix lookups. Almost all entries live in an immutable snapshot of three parallel arrays
+ * sorted by term: the UTF-8 bytes of every term back to back, where each term starts, and its id. That costs a few
+ * bytes over the term itself per entry, against well over a hundred for a tree of objects.
+ * <p>
+ * Changes since the snapshot go to an overlay: ids whose snapshot entries are stale, and their current entries,
+ * both kept as small sorted arrays. Lookups merge both. Every write publishes a new immutable state, copying the
+ * overlay, so lookups take no lock and see either the old or the new state of a concurrent write. Once the overlay
+ * grows past a threshold it is folded into a new snapshot on the compaction executor, off the writer's thread.
+ */
+public class PrefixIndex {
+
+    private static final int COMPACTION_THRESHOLD = 20_000;
+
+    private final Object writeLock = new Object();
+    private final Executor compactionExecutor;
+    private final int compactionThreshold;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile State state = State.empty(Snapshot.EMPTY);
+
+    public PrefixIndex() {
+        this(ForkJoinPool.commonPool(), COMPACTION_THRESHOLD);
+    }
+
+    PrefixIndex(Executor compactionExecutor, int compactionThreshold) {
+        this.compactionExecutor = compactionExecutor;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Installs a freshly built snapshot. The overlay is kept: it holds writes that happened while the snapshot was
+     * being built, which the snapshot may or may not have seen.
+     */
+    public void replaceSnapshot(Builder builder) {
+        Snapshot snapshot = builder.build();
+        synchronized (writeLock) {
+            State current = state;
+            state = new State(snapshot, current.stale, current.overlay);
+        }
+    }
+
+    public void put(long id, Collection<String> terms) {
+        Entry[] entries = terms.stream().filter(Objects::nonNull).map(term -> new Entry(encode(term), id))
+                .sorted().toArray(Entry[]::new);
+        synchronized (writeLock) {
+            State current = state;
+            state = new State(current.snapshot, withId(current.stale, id), merge(withoutId(current.overlay, id), entries));
+        }
+        compactIfNeeded();
+    }
+
+    public void remove(long id) {
+        synchronized (writeLock) {
+            State current = state;
+            state = new State(current.snapshot, withId(current.stale, id), withoutId(current.overlay, id));
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Up to {@code limit} entries whose term starts with {@code prefix}, in term order, one per id.
+     */
+    public List<Match> search(String prefix, int limit) {
+        byte[] key = encode(prefix);
+        State current = state;
+        Snapshot snapshot = current.snapshot;
+        Entry[] overlay = current.overlay;
+
+        int index = snapshot.lowerBound(key);
+        int overlayIndex = lowerBound(overlay, new Entry(key, Long.MIN_VALUE));
+
+        List<Match> matches = new ArrayList<>(Math.min(limit, 64));
+        Set<Long> seen = new HashSet<>();
+        while (matches.size() < limit) {
+            while (index < snapshot.size() && snapshot.startsWith(index, key) && current.isStale(snapshot.ids[index])) {
+                index++;
+            }
+            boolean snapshotHasNext = index < snapshot.size() && snapshot.startsWith(index, key);
+            Entry fromOverlay = overlayIndex < overlay.length && overlay[overlayIndex].startsWith(key)
+                    ? overlay[overlayIndex] : null;
+            if (!snapshotHasNext && fromOverlay == null) {
+                break;
+            }
+            if (snapshotHasNext && (fromOverlay == null || snapshot.compare(index, fromOverlay) <= 0)) {
+                if (seen.add(snapshot.ids[index])) {
+                    matches.add(new Match(snapshot.ids[index], snapshot.term(index)));
+                }
+                index++;
+            } else {
+                if (seen.add(fromOverlay.id())) {
+                    matches.add(new Match(fromOverlay.id(), new String(fromOverlay.key(), StandardCharsets.UTF_8)));
+                }
+                overlayIndex++;
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        State current = state;
+        return current.snapshot.size() + current.overlay.length;
+    }
+
+    /**
+     * Approximate heap held by the index: the snapshot arrays plus a per-object estimate for the overlay.
+     */
+    public long sizeInBytes() {
+        State current = state;
+        long overlayBytes = 16L + current.overlay.length * 4L;
+        for (Entry entry : current.overlay) {
+            overlayBytes += 16 + entry.key().length + 24;
+        }
+        return current.snapshot.sizeInBytes() + overlayBytes + 16L + current.stale.length * 8L;
+    }
+
+    /**
+     * Schedules one compaction at a time, of the state that crossed the threshold. Writes go on while it runs;
+     * when it is done only the writes it has not seen stay in the overlay.
+     */
+    private void compactIfNeeded() {
+        State current = state;
+        if (current.stale.length + current.overlay.length < compactionThreshold || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact(current);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            compacting.set(false);
+            throw e;
+        }
+    }
+
+    private void compact(State base) {
+        Snapshot snapshot = base.snapshot.compact(base);
+        synchronized (writeLock) {
+            State current = state;
+            if (current.snapshot != base.snapshot) {
+                // a snapshot was installed meanwhile and may hold writes this one has not seen
+                return;
+            }
+            // entries are never modified, only replaced, so identity tells the writes made since the base apart
+            Set<Entry> baseOverlay = Collections.newSetFromMap(new IdentityHashMap<>());
+            baseOverlay.addAll(Arrays.asList(base.overlay));
+            Set<Long> touched = new HashSet<>();
+            List<Entry> overlay = new ArrayList<>();
+            for (Entry entry : current.overlay) {
+                if (!baseOverlay.remove(entry)) {
+                    overlay.add(entry);
+                    touched.add(entry.id());
+                }
+            }
+            // base entries gone from the overlay belong to ids rewritten or removed since
+            baseOverlay.forEach(entry -> touched.add(entry.id()));
+            for (long id : current.stale) {
+                if (!base.isStale(id)) {
+                    touched.add(id);
+                }
+            }
+            state = new State(snapshot, touched.stream().mapToLong(Long::longValue).sorted().toArray(),
+                    overlay.toArray(Entry[]::new));
+        }
+    }
+
+    private static long[] withId(long[] ids, long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertAt = -position - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertAt);
+        copy[insertAt] = id;
+        System.arraycopy(ids, insertAt, copy, insertAt + 1, ids.length - insertAt);
+        return copy;
+    }
+
+    private static Entry[] withoutId(Entry[] entries, long id) {
+        return Arrays.stream(entries).filter(entry -> entry.id() != id).toArray(Entry[]::new);
+    }
+
+    private static Entry[] merge(Entry[] left, Entry[] right) {
+        Entry[] merged = new Entry[left.length + right.length];
+        int l = 0;
+        int r = 0;
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = r == right.length || (l < left.length && left[l].compareTo(right[r]) <= 0) ? left[l++] : right[r++];
+        }
+        return merged;
+    }
+
+    private static int lowerBound(Entry[] entries, Entry key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean startsWith(byte[] data, int from, int to, byte[] prefix) {
+        return to - from >= prefix.length && Arrays.equals(data, from, from + prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static byte[] encode(String term) {
+        return term.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public record Match(long id, String term) {
+    }
+
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long id, Collection<String> terms) {
+            for (String term : terms) {
+                if (term != null) {
+                    entries.add(new Entry(encode(term), id));
+                }
+            }
+            return this;
+        }
+
+        private Snapshot build() {
+            entries.sort(null);
+            int bytes = 0;
+            for (Entry entry : entries) {
+                bytes += entry.key().length;
+            }
+            byte[] data = new byte[bytes];
+            int[] offsets = new int[entries.size() + 1];
+            long[] ids = new long[entries.size()];
+            int position = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                System.arraycopy(entry.key(), 0, data, position, entry.key().length);
+                offsets[i] = position;
+                ids[i] = entry.id();
+                position += entry.key().length;
+            }
+            offsets[entries.size()] = position;
+            return new Snapshot(data, offsets, ids);
+        }
+    }
+
+    /**
+     * Term bytes compared unsigned, which is code point order for UTF-8, then id.
+     */
+    private record Entry(byte[] key, long id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = Arrays.compareUnsigned(key, other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+
+        boolean startsWith(byte[] prefix) {
+            return PrefixIndex.startsWith(key, 0, key.length, prefix);
+        }
+    }
+
+    private record Snapshot(byte[] data, int[] offsets, long[] ids) {
+
+        static final Snapshot EMPTY = new Snapshot(new byte[0], new int[1], new long[0]);
+
+        int size() {
+            return ids.length;
+        }
+
+        int lowerBound(byte[] key) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Arrays.compareUnsigned(data, offsets[mid], offsets[mid + 1], key, 0, key.length) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean startsWith(int index, byte[] prefix) {
+            return PrefixIndex.startsWith(data, offsets[index], offsets[index + 1], prefix);
+        }
+
+        int compare(int index, Entry entry) {
+            int byKey = Arrays.compareUnsigned(data, offsets[index], offsets[index + 1], entry.key(), 0, entry.key().length);
+            return byKey != 0 ? byKey : Long.compare(ids[index], entry.id());
+        }
+
+        String term(int index) {
+            return new String(data, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+        }
+
+        long sizeInBytes() {
+            return 16L + data.length + 16L + offsets.length * 4L + 16L + ids.length * 8L;
+        }
+
+        /**
+         * This snapshot without the stale ids, merged with the overlay; both are sorted, so no sort is needed.
+         */
+        Snapshot compact(State state) {
+            Entry[] overlay = state.overlay;
+            int count = overlay.length;
+            int bytes = 0;
+            for (int i = 0; i < size(); i++) {
+                if (!state.isStale(ids[i])) {
+                    count++;
+                    bytes += offsets[i + 1] - offsets[i];
+                }
+            }
+            for (Entry entry : overlay) {
+                bytes += entry.key().length;
+            }
+            byte[] mergedData = new byte[bytes];
+            int[] mergedOffsets = new int[count + 1];
+            long[] mergedIds = new long[count];
+            int position = 0;
+            int index = 0;
+            int overlayIndex = 0;
+            for (int i = 0; i < count; i++) {
+                while (index < size() && state.isStale(ids[index])) {
+                    index++;
+                }
+                mergedOffsets[i] = position;
+                if (overlayIndex == overlay.length || (index < size() && compare(index, overlay[overlayIndex]) <= 0)) {
+                    int length = offsets[index + 1] - offsets[index];
+                    System.arraycopy(data, offsets[index], mergedData, position, length);
+                    mergedIds[i] = ids[index++];
+                    position += length;
+                } else {
+                    Entry entry = overlay[overlayIndex++];
+                    System.arraycopy(entry.key(), 0, mergedData, position, entry.key().length);
+                    mergedIds[i] = entry.id();
+                    position += entry.key().length;
+                }
+            }
+            mergedOffsets[count] = position;
+            return new Snapshot(mergedData, mergedOffsets, mergedIds);
+        }
+    }
+
+    /**
+     * Never modified once published: ids hidden in the snapshot, sorted, and the overlay entries, sorted.
+     */
+    private record State(Snapshot snapshot, long[] stale, Entry[] overlay) {
+
+        static State empty(Snapshot snapshot) {
+            return new State(snapshot, new long[0], new Entry[0]);
+        }
+
+        boolean isStale(long id) {
+            return stale.length > 0 && Arrays.binarySearch(stale, id) >= 0;
+        }
+    }
+}
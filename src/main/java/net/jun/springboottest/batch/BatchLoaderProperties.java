@@ -0,0 +1,17 @@
+package net.jun.springboottest.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The employee batch loader, see {@link EmployeeBatchLoader}. {@code concurrency} bounds the batches queried at
+ * once.
+ */
+@ConfigurationProperties("app.employees.batch-loader")
+public record BatchLoaderProperties(boolean enabled,
+                                    @DefaultValue("2ms") Duration window,
+                                    @DefaultValue("500") int maxBatchSize,
+                                    @DefaultValue("4") int concurrency) {
+}
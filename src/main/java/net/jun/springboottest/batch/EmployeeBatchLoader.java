@@ -0,0 +1,138 @@
+package net.jun.springboottest.batch;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.jun.springboottest.datasource.ReadWriteRoutingDataSource;
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.service.EmployeeService;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects single-employee lookups from concurrent callers for a short window and answers them all with one
+ * {@link EmployeeService#getEmployeesByIds} query, in the manner of a DataLoader. A batch goes out when the window
+ * closes or when it reaches the maximum size, whichever comes first. Lookups the employees cache can answer never
+ * wait. Batches are read on the primary, and loaded employees go into the cache only where it has none: a batch
+ * read before a write committed must not replace the newer employee that write put there.
+ * <p>
+ * Once closed, the loader turns new lookups away and answers the pending ones before its threads stop.
+ */
+@Slf4j
+public class EmployeeBatchLoader implements MeterBinder, AutoCloseable {
+
+    private final EmployeeService employeeService;
+    private final Cache cache;
+    private final BatchLoaderProperties properties;
+    private final ScheduledExecutorService executor;
+    private final Object lock = new Object();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private Map<Long, CompletableFuture<Optional<Employee>>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    public EmployeeBatchLoader(EmployeeService employeeService, Cache cache, BatchLoaderProperties properties) {
+        this.employeeService = employeeService;
+        this.cache = cache;
+        this.properties = properties;
+        this.executor = Executors.newScheduledThreadPool(properties.concurrency(),
+                Thread.ofPlatform().name("employee-batch-loader-", 0).daemon().factory());
+    }
+
+    public CompletableFuture<Optional<Employee>> load(Long id) {
+        Employee cached = cache.get(id, Employee.class);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        synchronized (lock) {
+            // handing work to the executor under the lock keeps close() from shutting it down in between
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Employee batch loader is closed"));
+            }
+            // callers asking for the same id in one window share its future
+            CompletableFuture<Optional<Employee>> result = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (pending.size() >= properties.maxBatchSize()) {
+                Map<Long, CompletableFuture<Optional<Employee>>> batch = takePending();
+                executor.execute(() -> dispatch(batch));
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flush, properties.window().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        flush();
+        executor.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employee.batch.loader.loads", loads, AtomicLong::get)
+                .description("Ids resolved through batches")
+                .register(registry);
+        FunctionCounter.builder("employee.batch.loader.batches", batches, AtomicLong::get)
+                .description("Batch queries sent; loads divided by batches is the average batch size")
+                .register(registry);
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Optional<Employee>>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<Employee>>> takePending() {
+        Map<Long, CompletableFuture<Optional<Employee>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<Employee>>> batch) {
+        batches.incrementAndGet();
+        loads.addAndGet(batch.size());
+        try {
+            // read on the primary, as getEmployeeById does, since the rows are cached
+            EmployeeBatch result = ReadWriteRoutingDataSource.onPrimary(
+                    () -> employeeService.getEmployeesByIds(new ArrayList<>(batch.keySet())));
+            Map<Long, Employee> found = result.employees().stream()
+                    .collect(Collectors.toMap(Employee::getId, Function.identity(), (a, b) -> a, HashMap::new));
+            found.replaceAll((id, employee) -> {
+                Cache.ValueWrapper cached = cache.putIfAbsent(id, employee);
+                return cached != null && cached.get() instanceof Employee stored ? stored : employee;
+            });
+            batch.forEach((id, future) -> future.complete(Optional.ofNullable(found.get(id))));
+        } catch (RuntimeException e) {
+            log.warn("Batch lookup of {} employees failed", batch.size(), e);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package net.jun.springboottest.cache;
+
+/**
+ * Tells the other nodes to drop an entry, or the whole cache when {@code key} is null, from their near caches.
+ */
+public record CacheInvalidation(String sourceNode, String cacheName, Object key, long sentAtMillis) {
+}
@@ -0,0 +1,14 @@
+package net.jun.springboottest.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts {@link CacheInvalidation}s to every node, the sender included. A networked implementation (Redis
+ * pub/sub, a message broker) implements this; {@link InProcessCacheInvalidationBus} is the single-JVM stand-in.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
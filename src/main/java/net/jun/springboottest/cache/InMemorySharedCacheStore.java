@@ -0,0 +1,57 @@
+package net.jun.springboottest.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SharedCacheStore} in this JVM, for tests and single-node runs. Expired entries are dropped on read.
+ */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private final Map<String, Map<Object, Entry>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Object get(String cacheName, Object key) {
+        Map<Object, Entry> cache = caches.get(cacheName);
+        Entry entry = cache != null ? cache.get(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value, Duration timeToLive) {
+        caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>())
+                .put(key, new Entry(value, System.nanoTime() + timeToLive.toNanos()));
+    }
+
+    @Override
+    public Object putIfAbsent(String cacheName, Object key, Object value, Duration timeToLive) {
+        Entry created = new Entry(value, System.nanoTime() + timeToLive.toNanos());
+        Entry current = caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>())
+                .merge(key, created, (existing, ignored) -> existing.expiresAtNanos() - System.nanoTime() <= 0 ? created : existing);
+        return current == created ? null : current.value();
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        Map<Object, Entry> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.remove(key);
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        caches.remove(cacheName);
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+}
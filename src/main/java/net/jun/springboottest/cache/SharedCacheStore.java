@@ -0,0 +1,27 @@
+package net.jun.springboottest.cache;
+
+import java.time.Duration;
+
+/**
+ * The tier every node sees, behind the per-node near caches of {@link TwoLevelCacheManager}. A networked store
+ * (Redis, Memcached, Hazelcast) implements this; {@link InMemorySharedCacheStore} is the single-JVM stand-in.
+ */
+public interface SharedCacheStore {
+
+    /**
+     * The stored value, or null when there is none.
+     */
+    Object get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value, Duration timeToLive);
+
+    /**
+     * Stores the value only if there is none, atomically (SET NX in Redis). Returns the value already stored, or
+     * null when this one was stored.
+     */
+    Object putIfAbsent(String cacheName, Object key, Object value, Duration timeToLive);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+}
@@ -0,0 +1,189 @@
+package net.jun.springboottest.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A near cache in this JVM in front of a {@link SharedCacheStore}. Reads try the near cache, then the shared store,
+ * and keep what the store had. Writes go to the store first and then tell the other nodes, through the
+ * {@link CacheInvalidationBus}, to drop their near copies; they refill from the store on their next read.
+ * <p>
+ * Fills after a miss are not writes: the loaded value may already be older than the shared one (read from a lagging
+ * replica, or before another node's write committed), so it only goes to the store if the key is absent there, and
+ * no other node is told. {@link #putIfAbsent} does that, and so does {@link #put} on the {@link #filling()} view
+ * that {@link TwoLevelCacheResolver} hands to {@code @Cacheable}. A fill that loses keeps the stored value.
+ * A read that started before an eviction can still fill the evicted key; the shared time to live bounds that.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final String nodeId;
+    private final Cache<Object, Object> near;
+    private final SharedCacheStore shared;
+    private final CacheInvalidationBus bus;
+    private final Duration sharedTimeToLive;
+    private final org.springframework.cache.Cache filling = new Filling();
+
+    final AtomicLong nearHits = new AtomicLong();
+    final AtomicLong sharedHits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+
+    TwoLevelCache(String name, String nodeId, Cache<Object, Object> near, SharedCacheStore shared,
+                  CacheInvalidationBus bus, Duration sharedTimeToLive) {
+        super(true);
+        this.name = name;
+        this.nodeId = nodeId;
+        this.near = near;
+        this.shared = shared;
+        this.bus = bus;
+        this.sharedTimeToLive = sharedTimeToLive;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return near;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = near.getIfPresent(key);
+        if (value != null) {
+            nearHits.incrementAndGet();
+            return value;
+        }
+        value = shared.get(name, key);
+        if (value != null) {
+            sharedHits.incrementAndGet();
+            near.put(key, value);
+            return value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        ValueWrapper stored = putIfAbsent(key, value);
+        return stored != null ? (T) stored.get() : value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object stored = toStoreValue(value);
+        shared.put(name, key, stored, sharedTimeToLive);
+        near.put(key, stored);
+        broadcast(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object stored = toStoreValue(value);
+        Object existing = shared.putIfAbsent(name, key, stored, sharedTimeToLive);
+        near.put(key, existing != null ? existing : stored);
+        return existing != null ? toValueWrapper(existing) : null;
+    }
+
+    /**
+     * This cache, with {@link #put} filling rather than writing.
+     */
+    public org.springframework.cache.Cache filling() {
+        return filling;
+    }
+
+    @Override
+    public void evict(Object key) {
+        shared.evict(name, key);
+        near.invalidate(key);
+        broadcast(key);
+    }
+
+    @Override
+    public void clear() {
+        shared.clear(name);
+        near.invalidateAll();
+        broadcast(null);
+    }
+
+    /**
+     * Applies an invalidation sent by another node. The shared store already has the new state.
+     */
+    void invalidateNear(Object key) {
+        if (key == null) {
+            near.invalidateAll();
+        } else {
+            near.invalidate(key);
+        }
+    }
+
+    private void broadcast(Object key) {
+        bus.publish(new CacheInvalidation(nodeId, name, key, System.currentTimeMillis()));
+    }
+
+    private final class Filling implements org.springframework.cache.Cache {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return near;
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return TwoLevelCache.this.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return TwoLevelCache.this.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return TwoLevelCache.this.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            putIfAbsent(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return TwoLevelCache.this.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            TwoLevelCache.this.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            TwoLevelCache.this.clear();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package net.jun.springboottest.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Creates a {@link TwoLevelCache} per cache name and applies invalidations from the other nodes to them.
+ * <p>
+ * Puts and evictions made inside a transaction are held back until it commits. Otherwise another node could
+ * reload the old row between the invalidation and the commit and cache it again.
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MeterBinder {
+
+    private final String nodeId;
+    private final String nearSpec;
+    private final SharedCacheStore shared;
+    private final CacheInvalidationBus bus;
+    private final Duration sharedTimeToLive;
+    private final List<String> cacheNames;
+    private final AtomicLong invalidationsReceived = new AtomicLong();
+    private final AtomicLong invalidationLatencyMillis = new AtomicLong();
+
+    public TwoLevelCacheManager(String nodeId, String nearSpec, SharedCacheStore shared, CacheInvalidationBus bus,
+                                Duration sharedTimeToLive, List<String> cacheNames) {
+        this.nodeId = nodeId;
+        this.nearSpec = nearSpec;
+        this.shared = shared;
+        this.bus = bus;
+        this.sharedTimeToLive = sharedTimeToLive;
+        this.cacheNames = cacheNames;
+        setTransactionAware(true);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return cacheNames.stream().map(this::createCache).toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : getCacheNames()) {
+            if (!(targetCache(name) instanceof TwoLevelCache cache)) {
+                continue;
+            }
+            counter(registry, name, "near_hit", cache, c -> c.nearHits.get());
+            counter(registry, name, "shared_hit", cache, c -> c.sharedHits.get());
+            counter(registry, name, "miss", cache, c -> c.misses.get());
+        }
+        FunctionTimer.builder("cache.invalidation.latency", this,
+                        manager -> manager.invalidationsReceived.get(),
+                        manager -> manager.invalidationLatencyMillis.get(), TimeUnit.MILLISECONDS)
+                .description("Time from a write on one node to the other nodes dropping their near copies")
+                .register(registry);
+    }
+
+    /**
+     * The named cache for filling after a miss: {@code put} only stores when the key is absent, and tells no other
+     * node. See {@link TwoLevelCache}.
+     */
+    public Cache getFillingCache(String name) {
+        Cache cache = getCache(name);
+        return targetCache(name) instanceof TwoLevelCache twoLevelCache ? twoLevelCache.filling() : cache;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        return new TwoLevelCache(name, nodeId, Caffeine.from(nearSpec).build(), shared, bus, sharedTimeToLive);
+    }
+
+    /**
+     * The cache behind the transaction-aware decorator that {@link #getCache} hands out, or null if it was never
+     * created here.
+     */
+    private Cache targetCache(String name) {
+        Cache cache = lookupCache(name);
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.sourceNode())) {
+            return;
+        }
+        if (targetCache(invalidation.cacheName()) instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.invalidateNear(invalidation.key());
+        }
+        invalidationsReceived.incrementAndGet();
+        invalidationLatencyMillis.addAndGet(Math.max(0, System.currentTimeMillis() - invalidation.sentAtMillis()));
+    }
+
+    private static void counter(MeterRegistry registry, String cacheName, String result, TwoLevelCache cache,
+                                ToDoubleFunction<TwoLevelCache> count) {
+        FunctionCounter.builder("cache.two.level.gets", cache, count)
+                .description("Lookups by the tier that answered them")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,17 @@
+package net.jun.springboottest.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The two-level cache, see {@link TwoLevelCacheManager}. The near spec is a Caffeine spec per cache and node; keep
+ * its expiry short, it bounds staleness should an invalidation be lost. Without a node id each start picks one.
+ */
+@ConfigurationProperties("app.cache.two-level")
+public record TwoLevelCacheProperties(boolean enabled,
+                                      String nodeId,
+                                      @DefaultValue("maximumSize=10000,expireAfterWrite=1m") String nearSpec,
+                                      @DefaultValue("10m") Duration sharedTimeToLive) {
+}
@@ -0,0 +1,29 @@
+package net.jun.springboottest.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.CacheableOperation;
+
+import java.util.Collection;
+
+/**
+ * Hands {@code @Cacheable} the filling view of each cache, so what it caches after a miss never overwrites the
+ * shared tier or invalidates other nodes. {@code @CachePut} and {@code @CacheEvict} get the caches as they are.
+ */
+public class TwoLevelCacheResolver implements CacheResolver {
+
+    private final TwoLevelCacheManager cacheManager;
+
+    public TwoLevelCacheResolver(TwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        boolean fill = context.getOperation() instanceof CacheableOperation;
+        return context.getOperation().getCacheNames().stream()
+                .map(name -> fill ? cacheManager.getFillingCache(name) : cacheManager.getCache(name))
+                .toList();
+    }
+}
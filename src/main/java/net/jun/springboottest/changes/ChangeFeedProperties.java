@@ -0,0 +1,23 @@
+package net.jun.springboottest.changes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The change feed behind {@code GET /api/employees/changes}.
+ * <p>
+ * {@code settleTime} holds back rows stamped this recently. A write stamps {@code updated_at} at flush but becomes
+ * visible only at commit, so a transaction that takes longer than this between its flush and its commit can land
+ * behind a watermark already handed out, and its change is then missed by clients past that watermark.
+ * <p>
+ * Tombstones older than {@code tombstoneRetention} are purged by {@link TombstonePurger}; a client must poll more
+ * often than that, and a watermark older than it is refused so the client resynchronises instead of missing deletes.
+ */
+@ConfigurationProperties("app.employees.changes")
+public record ChangeFeedProperties(@DefaultValue("5s") Duration settleTime,
+                                   @DefaultValue("7d") Duration tombstoneRetention,
+                                   @DefaultValue("1h") Duration purgeInterval,
+                                   @DefaultValue("1000") int purgeBatchSize) {
+}
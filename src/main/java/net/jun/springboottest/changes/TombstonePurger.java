@@ -0,0 +1,43 @@
+package net.jun.springboottest.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import net.jun.springboottest.repository.EmployeeRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Removes tombstones once they are older than the retention, a bounded batch per transaction so the purge never
+ * holds many row locks or a long undo log.
+ */
+@Slf4j
+public class TombstonePurger {
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    public TombstonePurger(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager,
+                           Duration retention, int batchSize) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        int purged = 0;
+        Integer batch;
+        do {
+            batch = transactionTemplate.execute(status -> employeeRepository.deleteTombstonesBefore(before, batchSize));
+            purged += batch == null ? 0 : batch;
+        } while (batch != null && batch == batchSize);
+        if (purged > 0) {
+            log.info("Purged {} employee tombstones older than {}", purged, before);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.jun.springboottest.codec;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The binary representations offered next to JSON. Both carry the same data model as JSON, so the same Jackson
+ * annotations apply; the {@code -seq}/{@code stream+} variants are values back to back, the binary counterparts of
+ * NDJSON.
+ */
+public final class BinaryMediaTypes {
+
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+    public static final MediaType APPLICATION_STREAM_SMILE = MediaType.parseMediaType(APPLICATION_STREAM_SMILE_VALUE);
+
+    private BinaryMediaTypes() {
+    }
+}
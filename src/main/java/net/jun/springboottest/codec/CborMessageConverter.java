@@ -0,0 +1,20 @@
+package net.jun.springboottest.codec;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes {@code application/cbor} with a mapper built from the application's Jackson settings, so binary
+ * responses match the JSON ones field for field. Boot puts it in place of the framework's default CBOR converter.
+ */
+@Component
+@Profile("!reactive")
+public class CborMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    public CborMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        super(builder.factory(new CBORFactory()).build());
+    }
+}
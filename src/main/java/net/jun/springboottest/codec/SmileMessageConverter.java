@@ -0,0 +1,20 @@
+package net.jun.springboottest.codec;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes {@code application/x-jackson-smile} with a mapper built from the application's Jackson
+ * settings. Boot puts it in place of the framework's default Smile converter.
+ */
+@Component
+@Profile("!reactive")
+public class SmileMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    public SmileMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        super(builder.factory(new SmileFactory()).build());
+    }
+}
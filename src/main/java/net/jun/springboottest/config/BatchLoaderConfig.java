@@ -0,0 +1,30 @@
+package net.jun.springboottest.config;
+
+import net.jun.springboottest.batch.BatchLoaderProperties;
+import net.jun.springboottest.batch.EmployeeBatchLoader;
+import net.jun.springboottest.service.EmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import static net.jun.springboottest.config.CacheConfig.EMPLOYEES_CACHE;
+
+/**
+ * Routes {@code GET /api/employees/{id}} through the {@link EmployeeBatchLoader} when
+ * {@code app.employees.batch-loader.enabled} is set.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.employees.batch-loader", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(BatchLoaderProperties.class)
+public class BatchLoaderConfig {
+
+    @Bean(destroyMethod = "close")
+    public EmployeeBatchLoader employeeBatchLoader(EmployeeService employeeService, CacheManager cacheManager,
+                                                   BatchLoaderProperties properties) {
+        return new EmployeeBatchLoader(employeeService, cacheManager.getCache(EMPLOYEES_CACHE), properties);
+    }
+}
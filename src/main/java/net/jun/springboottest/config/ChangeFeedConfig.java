@@ -0,0 +1,22 @@
+package net.jun.springboottest.config;
+
+import net.jun.springboottest.changes.ChangeFeedProperties;
+import net.jun.springboottest.changes.TombstonePurger;
+import net.jun.springboottest.repository.EmployeeRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedConfig {
+
+    @Bean
+    public TombstonePurger tombstonePurger(EmployeeRepository employeeRepository,
+                                           PlatformTransactionManager transactionManager,
+                                           ChangeFeedProperties properties) {
+        return new TombstonePurger(employeeRepository, transactionManager, properties.tombstoneRetention(),
+                properties.purgeBatchSize());
+    }
+}
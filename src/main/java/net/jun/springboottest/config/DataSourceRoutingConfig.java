@@ -0,0 +1,86 @@
+package net.jun.springboottest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jun.springboottest.datasource.DataSourceRoutingProperties;
+import net.jun.springboottest.datasource.ReadWriteRoutingDataSource;
+import net.jun.springboottest.datasource.ReplicaLagMonitor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured pool with a primary pool and one pool per read replica when
+ * {@code app.datasource.routing.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                                 DataSourceRoutingProperties routingProperties,
+                                                                 Environment environment,
+                                                                 MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(ReadWriteRoutingDataSource.PRIMARY, dataSourceProperties,
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(), binder, meterRegistry);
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> configured = routingProperties.replicas();
+        for (int i = 0; i < configured.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = configured.get(i);
+            String name = "replica-" + i;
+            replicas.put(name, pool(name, dataSourceProperties, replica.url(),
+                    replica.username() != null ? replica.username() : dataSourceProperties.determineUsername(),
+                    replica.password() != null ? replica.password() : dataSourceProperties.determinePassword(),
+                    binder, meterRegistry));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas);
+    }
+
+    /**
+     * The application's {@code dataSource}. The physical connection is fetched on the first statement, once the
+     * transaction's read-only flag is known, so the routing sees it.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+                                               DataSourceRoutingProperties routingProperties) {
+        return new ReplicaLagMonitor(readWriteRoutingDataSource, routingProperties.maxReplicaLag());
+    }
+
+    private static HikariDataSource pool(String name, DataSourceProperties dataSourceProperties, String url,
+                                         String username, String password, Binder binder, MeterRegistry meterRegistry) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // these pools are not beans, so Boot does not bind their metrics
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
@@ -0,0 +1,48 @@
+package net.jun.springboottest.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import net.jun.springboottest.outbox.EmployeeOutboxRelay;
+import net.jun.springboottest.outbox.EmployeeOutboxSink;
+import net.jun.springboottest.outbox.EmployeeOutboxWriter;
+import net.jun.springboottest.outbox.FileOutboxSink;
+import net.jun.springboottest.outbox.OutboxProperties;
+import net.jun.springboottest.repository.EmployeeOutboxRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Records employee changes in the outbox and relays them to the {@link EmployeeOutboxSink} when
+ * {@code app.outbox.enabled} is set. Without a sink bean of its own, the application gets the local file sink.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public EmployeeOutboxWriter employeeOutboxWriter(EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                                                     ObjectMapper objectMapper) {
+        return new EmployeeOutboxWriter(entityManager, jdbcTemplate, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(EmployeeOutboxSink.class)
+    public FileOutboxSink fileOutboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return new FileOutboxSink(properties.file(), objectMapper);
+    }
+
+    @Bean
+    public EmployeeOutboxRelay employeeOutboxRelay(EmployeeOutboxRepository outboxRepository, EmployeeOutboxSink sink,
+                                                   PlatformTransactionManager transactionManager,
+                                                   OutboxProperties properties) {
+        return new EmployeeOutboxRelay(outboxRepository, sink, transactionManager, properties.batchSize());
+    }
+}
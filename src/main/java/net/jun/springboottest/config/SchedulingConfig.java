@@ -0,0 +1,59 @@
+package net.jun.springboottest.config;
+
+import net.jun.springboottest.changes.ChangeFeedProperties;
+import net.jun.springboottest.changes.TombstonePurger;
+import net.jun.springboottest.datasource.DataSourceRoutingProperties;
+import net.jun.springboottest.datasource.ReplicaLagMonitor;
+import net.jun.springboottest.outbox.EmployeeOutboxRelay;
+import net.jun.springboottest.outbox.OutboxProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+/**
+ * Schedules the background tasks at the intervals bound in their properties. Each task and its properties only
+ * exist while the owning feature is enabled, so a disabled feature schedules nothing.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final ObjectProvider<TombstonePurger> tombstonePurger;
+    private final ObjectProvider<ChangeFeedProperties> changeFeedProperties;
+    private final ObjectProvider<EmployeeOutboxRelay> outboxRelay;
+    private final ObjectProvider<OutboxProperties> outboxProperties;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+    private final ObjectProvider<DataSourceRoutingProperties> routingProperties;
+
+    public SchedulingConfig(ObjectProvider<TombstonePurger> tombstonePurger,
+                            ObjectProvider<ChangeFeedProperties> changeFeedProperties,
+                            ObjectProvider<EmployeeOutboxRelay> outboxRelay,
+                            ObjectProvider<OutboxProperties> outboxProperties,
+                            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                            ObjectProvider<DataSourceRoutingProperties> routingProperties) {
+        this.tombstonePurger = tombstonePurger;
+        this.changeFeedProperties = changeFeedProperties;
+        this.outboxRelay = outboxRelay;
+        this.outboxProperties = outboxProperties;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.routingProperties = routingProperties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        tombstonePurger.ifAvailable(purger -> taskRegistrar.addFixedDelayTask(purger::purge,
+                changeFeedProperties.getObject().purgeInterval()));
+        outboxRelay.ifAvailable(relay -> taskRegistrar.addFixedDelayTask(relay::relay,
+                outboxProperties.getObject().relayInterval()));
+        // replicas start in rotation, the first check comes an interval after startup like every later one
+        replicaLagMonitor.ifAvailable(monitor -> {
+            Duration interval = routingProperties.getObject().lagCheckInterval();
+            taskRegistrar.addFixedDelayTask(new FixedDelayTask(monitor::checkReplicas, interval, interval));
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package net.jun.springboottest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.jun.springboottest.monitoring.SqlMonitoringProperties;
+import net.jun.springboottest.monitoring.SqlStatementCountFilter;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(SqlMonitoringProperties.class)
+public class SqlMonitoringConfig {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+    static final String SQL_LOGGER = "net.jun.springboottest.sql";
+
+    /**
+     * Wraps the application's {@code dataSource} so every statement is counted per thread and slow ones are
+     * logged with their bind parameters. Only that bean is wrapped, so statements are never counted twice when
+     * it delegates to other pools.
+     */
+    @Bean
+    public static BeanPostProcessor sqlMonitoringDataSourcePostProcessor(ObjectProvider<SqlMonitoringProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource
+                        || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(DATA_SOURCE_BEAN)
+                        .countQuery()
+                        .logSlowQueryBySlf4j(properties.getObject().slowQueryThreshold().toMillis(),
+                                TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN, SQL_LOGGER)
+                        .logQueryBySlf4j(SLF4JLogLevel.DEBUG, SQL_LOGGER)
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<SqlStatementCountFilter> sqlStatementCountFilter(MeterRegistry meterRegistry,
+                                                                                   SqlMonitoringProperties properties) {
+        FilterRegistrationBean<SqlStatementCountFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatementCountFilter(meterRegistry, properties.maxStatementsPerRequest()));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,67 @@
+package net.jun.springboottest.config;
+
+import net.jun.springboottest.cache.CacheInvalidationBus;
+import net.jun.springboottest.cache.InMemorySharedCacheStore;
+import net.jun.springboottest.cache.InProcessCacheInvalidationBus;
+import net.jun.springboottest.cache.SharedCacheStore;
+import net.jun.springboottest.cache.TwoLevelCacheManager;
+import net.jun.springboottest.cache.TwoLevelCacheProperties;
+import net.jun.springboottest.cache.TwoLevelCacheResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.UUID;
+
+import static net.jun.springboottest.config.CacheConfig.EMPLOYEES_CACHE;
+
+/**
+ * Replaces the Caffeine-only cache manager with near caches over a shared tier when
+ * {@code app.cache.two-level.enabled} is set. A {@link SharedCacheStore} or {@link CacheInvalidationBus} bean of the
+ * application's own (Redis, say) takes the place of the in-JVM stand-ins, which only make sense on one node.
+ * <p>
+ * The {@link TwoLevelCacheResolver} makes {@code @Cacheable} misses fill the shared tier only where it is empty,
+ * so a stale read cannot replace a newer write there.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.two-level", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+public class TwoLevelCacheConfig implements CachingConfigurer {
+
+    private final ObjectProvider<TwoLevelCacheManager> cacheManager;
+
+    public TwoLevelCacheConfig(ObjectProvider<TwoLevelCacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public CacheResolver cacheResolver() {
+        return new TwoLevelCacheResolver(cacheManager.getObject());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SharedCacheStore sharedCacheStore() {
+        return new InMemorySharedCacheStore();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationBus cacheInvalidationBus() {
+        return new InProcessCacheInvalidationBus();
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(TwoLevelCacheProperties properties, SharedCacheStore sharedCacheStore,
+                                             CacheInvalidationBus cacheInvalidationBus) {
+        String nodeId = properties.nodeId() != null ? properties.nodeId() : UUID.randomUUID().toString();
+        return new TwoLevelCacheManager(nodeId, properties.nearSpec(), sharedCacheStore, cacheInvalidationBus,
+                properties.sharedTimeToLive(), List.of(EMPLOYEES_CACHE));
+    }
+}
@@ -0,0 +1,27 @@
+package net.jun.springboottest.config;
+
+import net.jun.springboottest.ingest.EmployeeWriteBehindQueue;
+import net.jun.springboottest.ingest.WriteBehindProperties;
+import net.jun.springboottest.service.EmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Lets {@code POST /api/employees} queue creates sent with {@code Prefer: respond-async} when
+ * {@code app.employees.write-behind.enabled} is set.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "app.employees.write-behind", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+
+    @Bean
+    public EmployeeWriteBehindQueue employeeWriteBehindQueue(EmployeeService employeeService,
+                                                             WriteBehindProperties properties) {
+        return new EmployeeWriteBehindQueue(employeeService, properties);
+    }
+}
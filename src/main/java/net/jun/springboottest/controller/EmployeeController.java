@@ -1,59 +1,571 @@
 package net.jun.springboottest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import net.jun.springboottest.autocomplete.EmployeeAutocompleteIndex;
+import net.jun.springboottest.batch.EmployeeBatchLoader;
+import net.jun.springboottest.codec.CborMessageConverter;
+import net.jun.springboottest.codec.SmileMessageConverter;
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeChangeBatch;
+import net.jun.springboottest.dto.EmployeeChanges;
+import net.jun.springboottest.dto.EmployeeCollectionVersion;
+import net.jun.springboottest.dto.EmployeeContact;
+import net.jun.springboottest.dto.EmployeeIngestStatus;
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.dto.EmployeePage;
+import net.jun.springboottest.dto.EmployeeSuggestion;
+import net.jun.springboottest.ingest.EmployeeWriteBehindQueue;
 import net.jun.springboottest.model.Employee;
 import net.jun.springboottest.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import static net.jun.springboottest.codec.BinaryMediaTypes.*;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/employees")
 @RequiredArgsConstructor
 public class EmployeeController {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int BULK_CHUNK_SIZE = 1000;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final String RETURN_MINIMAL = "return=minimal";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final Pattern VERSION_ETAG = Pattern.compile("\"(\\d{1,18})\"");
+    // the whole list in one value, and the same employees as a sequence of values; JSON first, as the default
+    private static final List<MediaType> ARRAY_TYPES =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+    private static final List<MediaType> SEQUENCE_TYPES =
+            List.of(MediaType.APPLICATION_NDJSON, APPLICATION_CBOR_SEQ, APPLICATION_STREAM_SMILE);
+
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final EmployeeAutocompleteIndex autocompleteIndex;
+    private final Optional<EmployeeWriteBehindQueue> writeBehindQueue;
+    private final Optional<EmployeeBatchLoader> batchLoader;
+    private final CborMessageConverter cborConverter;
+    private final SmileMessageConverter smileConverter;
 
+    /**
+     * Creates the employee and answers 201. With {@code Prefer: respond-async} and write-behind enabled the create
+     * is queued instead, answering 202 with where to follow it up, or 429 when the queue is full. Without
+     * write-behind the preference is ignored and the create runs synchronously.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public ResponseEntity<?> createEmployee(@RequestBody Employee employee,
+                                            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (writeBehindQueue.isEmpty() || !prefers(prefer, RESPOND_ASYNC)) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+        }
+        return writeBehindQueue.get().submit(employee)
+                .<ResponseEntity<?>>map(status -> ResponseEntity.accepted()
+                        .location(URI.create("/api/employees/ingest/" + status.trackingId()))
+                        .header("Preference-Applied", RESPOND_ASYNC)
+                        .body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<EmployeeIngestStatus> getIngestStatus(@PathVariable UUID trackingId) {
+        return writeBehindQueue.flatMap(queue -> queue.getStatus(trackingId))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public List<EmployeeBulkResult> createEmployees(@RequestBody List<Employee> employees) {
+        return inChunks(employees.iterator(), employeeService::saveEmployees);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<EmployeeBulkResult> createEmployees(InputStream body) throws IOException {
+        try (MappingIterator<Employee> employees = objectMapper.readerFor(Employee.class).readValues(body)) {
+            return inChunks(employees, employeeService::saveEmployees);
+        }
+    }
+
+    @PutMapping("/bulk")
+    public List<EmployeeBulkResult> updateEmployees(@RequestBody List<Employee> employees) {
+        return inChunks(employees.iterator(), employeeService::updateEmployees);
+    }
+
+    @DeleteMapping("/bulk")
+    public List<EmployeeBulkResult> deleteEmployees(@RequestBody List<Long> ids) {
+        // one UPDATE ... IN statement per chunk
+        return inChunks(ids.iterator(), employeeService::deleteEmployees);
     }
 
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MediaType format = negotiate(accept, ARRAY_TYPES);
+        // answer conditional requests from the aggregate alone, before any row is loaded or serialized
+        String current = collectionETag(employeeService.getCollectionVersion(), formatSuffix(format));
+        if (noneMatchCovers(ifNoneMatch, current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(current)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        // the aggregate and the rows are separate reads, possibly on different replicas, so the tag sent with the
+        // body is computed from the body
+        List<Employee> employees = employeeService.getAllEmployees();
+        return ResponseEntity.ok()
+                .eTag(collectionETag(EmployeeCollectionVersion.of(employees), formatSuffix(format)))
+                .contentType(format)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(employees);
+    }
+
+    /**
+     * The same array as {@link #getAllEmployees}, written from the JDBC rows as they arrive instead of from a list
+     * of entities, in JSON, CBOR or Smile, and gzipped when the client accepts it. The ETag has to be sent before
+     * the rows are read, so it comes from the aggregate; with read replicas the two reads may be served by
+     * different replicas, and the tag can trail the body by up to the maximum replica lag. The rows stream from an
+     * open result set, so a slow client keeps a pooled connection busy until it has read the whole array.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(
+            WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MediaType format = negotiate(accept, ARRAY_TYPES);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // the gzipped bytes differ, so they get their own tag
+        String eTag = collectionETag(employeeService.getCollectionVersion(), formatSuffix(format) + (gzip ? "-gzip" : ""));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+            // closing the generator closes the target, which writes the gzip trailer
+            try (JsonGenerator generator = mapperFor(format).createGenerator(target)) {
+                employeeService.writeEmployeesAsJson(generator);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(format)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Up to {@link #MAX_PAGE_SIZE} employees by id with one IN query, in the requested order, plus the ids that
+     * matched nothing.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<EmployeeBatch> getEmployeesByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<EmployeePage> getEmployeePage(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "100") int size) {
+        long afterId;
+        try {
+            afterId = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // one extra row tells us whether another page exists
+        List<Employee> employees = employeeService.getEmployeesAfter(afterId, pageSize + 1);
+        String nextCursor = null;
+        if (employees.size() > pageSize) {
+            employees = employees.subList(0, pageSize);
+            nextCursor = encodeCursor(employees.get(pageSize - 1).getId());
+        }
+        return ResponseEntity.ok(new EmployeePage(employees, nextCursor));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<EmployeeChanges> getChanges(@RequestParam(required = false) String since,
+                                                      @RequestParam(defaultValue = "1000") int size) {
+        Instant sinceUpdatedAt;
+        long afterId;
+        try {
+            String[] watermark = decodeWatermark(since);
+            sinceUpdatedAt = Instant.parse(watermark[0]);
+            afterId = Long.parseLong(watermark[1]);
+        } catch (IllegalArgumentException | DateTimeException | ArrayIndexOutOfBoundsException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        EmployeeChangeBatch batch = employeeService.getChangesSince(sinceUpdatedAt, afterId, pageSize);
+        List<Employee> changes = batch.employees();
+        Instant nextUpdatedAt = sinceUpdatedAt;
+        long nextId = afterId;
+        if (!changes.isEmpty()) {
+            Employee last = changes.get(changes.size() - 1);
+            nextUpdatedAt = last.getUpdatedAt();
+            nextId = last.getId();
+        }
+        // a short page holds every change stamped before until, so a caught-up client moves on with the clock
+        // and its watermark does not outlive the tombstone retention on a quiet table
+        if (changes.size() < pageSize && batch.until().isAfter(nextUpdatedAt)) {
+            nextUpdatedAt = batch.until();
+            nextId = 0;
+        }
+        return ResponseEntity.ok(new EmployeeChanges(changes, encodeWatermark(nextUpdatedAt, nextId)));
+    }
+
+    /**
+     * One value per employee: newline-delimited JSON, or CBOR or Smile values back to back.
+     */
+    @GetMapping(value = "/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamEmployees(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = negotiate(accept, SEQUENCE_TYPES);
+        ObjectMapper mapper = mapperFor(format);
+        boolean ndjson = format.equals(MediaType.APPLICATION_NDJSON);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = mapper.createGenerator(outputStream)) {
+                if (ndjson) {
+                    generator.setRootValueSeparator(new SerializedString("\n"));
+                }
+                employeeService.forEachEmployee(employee -> {
+                    try {
+                        mapper.writeValue(generator, employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                // binary values delimit themselves
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format)
+                .body(body);
+    }
+
+    @GetMapping("/by-name")
+    public List<Employee> getEmployeesByName(@RequestParam String firstName, @RequestParam String lastName) {
+        return employeeService.getEmployeesByName(firstName, lastName);
+    }
+
+    @GetMapping("/by-name/contacts")
+    public List<EmployeeContact> getEmployeeContactsByName(@RequestParam String firstName,
+                                                           @RequestParam String lastName) {
+        return employeeService.getEmployeeContactsByName(firstName, lastName);
+    }
+
+    @GetMapping("/search")
+    public List<Employee> searchEmployees(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return employeeService.searchEmployees(q, Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT));
+    }
+
+    @GetMapping("/autocomplete")
+    public List<EmployeeSuggestion> autocomplete(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return autocompleteIndex.suggest(prefix, Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id) {
-        return employeeService.getEmployeeById(id)
-                .map(ResponseEntity::ok)
+        // the response carries the ETag, so a matching If-None-Match is answered with 304 and no body
+        Optional<Employee> employee = batchLoader.isPresent()
+                ? loadBatched(batchLoader.get(), id)
+                : employeeService.getEmployeeById(id);
+        return employee
+                .map(e -> ResponseEntity.ok().eTag(eTag(e)).body(e))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId,
-                                                   @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(e -> {
-                    e.setFirstName(employee.getFirstName());
-                    e.setLastName(employee.getLastName());
-                    e.setEmail(employee.getEmail());
-                    employeeService.updateEmployee(e);
-                    return ResponseEntity.ok(e);
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+                                                   @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        try {
+            return employeeService.updateEmployee(employeeId, employee, expectedVersion)
+                    .map(updated -> ResponseEntity.ok().eTag(eTag(updated)).body(updated))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
+    }
+
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId,
+                                              @RequestBody EmployeePatch patch,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (patch.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (expectedVersion != null) {
+            patch = new EmployeePatch(patch.firstName(), patch.lastName(), patch.email(), expectedVersion);
+        }
+        try {
+            return employeeService.patchEmployee(employeeId, patch)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            throw e;
+        }
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<Employee> deleteEmployee(@PathVariable("id") long employeeId) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(e -> {
-                    employeeService.deleteEmployee(employeeId);
-                    return ResponseEntity.ok(e);
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Employee> deleteEmployee(@PathVariable("id") long employeeId,
+                                                   @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        try {
+            // "Prefer: return=minimal" skips reading the row back and answers 204 from the affected-row count
+            if (prefers(prefer, RETURN_MINIMAL)) {
+                return employeeService.deleteEmployee(employeeId, expectedVersion)
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.notFound().build();
+            }
+            return employeeService.deleteEmployeeReturning(employeeId, expectedVersion)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    /**
+     * Whether the Prefer header lists {@code preference}; preferences are comma-separated and may carry
+     * parameters after a semicolon, which are ignored here.
+     */
+    private static boolean prefers(String prefer, String preference) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String token : prefer.split(",")) {
+            int parameters = token.indexOf(';');
+            String name = parameters < 0 ? token : token.substring(0, parameters);
+            if (name.strip().equalsIgnoreCase(preference)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an If-None-Match header lists the tag, compared weakly as conditional GETs are.
+     */
+    private static boolean noneMatchCovers(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String token : ifNoneMatch.split(",")) {
+            String tag = token.strip();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Changes whenever a row is added, removed or updated.
+     */
+    private static String collectionETag(EmployeeCollectionVersion version, String suffix) {
+        // microseconds, as many as updated_at keeps
+        long maxUpdatedAt = version.maxUpdatedAt() == null
+                ? 0 : ChronoUnit.MICROS.between(Instant.EPOCH, version.maxUpdatedAt());
+        return "\"" + version.count() + "-" + version.maxId() + "-" + version.versionSum() + "-" + maxUpdatedAt
+                + suffix + "\"";
+    }
+
+    /**
+     * The first offered type that the most preferred Accept entry covers, or the first offered type, JSON, if
+     * none does. Entries of equal quality keep the client's order.
+     */
+    private static MediaType negotiate(String accept, List<MediaType> offered) {
+        if (accept == null || accept.isBlank()) {
+            return offered.get(0);
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (IllegalArgumentException e) {
+            return offered.get(0);
+        }
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            for (MediaType candidate : offered) {
+                if (type.includes(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        return offered.get(0);
+    }
+
+    private ObjectMapper mapperFor(MediaType format) {
+        if (format.getSubtype().startsWith("cbor")) {
+            return cborConverter.getObjectMapper();
+        }
+        if (format.getSubtype().endsWith("x-jackson-smile")) {
+            return smileConverter.getObjectMapper();
+        }
+        return objectMapper;
+    }
+
+    /**
+     * Each format is a different representation, so each gets its own collection ETag.
+     */
+    private static String formatSuffix(MediaType format) {
+        if (format.getSubtype().startsWith("cbor")) {
+            return "-cbor";
+        }
+        if (format.getSubtype().endsWith("x-jackson-smile")) {
+            return "-smile";
+        }
+        return "";
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static Optional<Employee> loadBatched(EmployeeBatchLoader loader, Long id) {
+        try {
+            return loader.load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Feeds rows to the service one chunk (one transaction) at a time, so neither the persistence context nor
+     * a failed chunk grows with the size of the request.
+     */
+    private static <T> List<EmployeeBulkResult> inChunks(Iterator<T> rows,
+                                                         Function<List<T>, List<EmployeeBulkResult>> writer) {
+        List<EmployeeBulkResult> results = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                results.addAll(writer.apply(chunk));
+                chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writer.apply(chunk));
+        }
+        return results;
+    }
+
+    /**
+     * Strong ETag of a single employee: its row version, which every write bumps.
+     */
+    private static String eTag(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    /**
+     * Version an If-Match header asks for, or {@code null} when the header is absent or {@code *}. A tag that
+     * can never equal a version ETag (weak, malformed, or a list) yields -1, so the precondition fails.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = VERSION_ETAG.matcher(ifMatch.trim());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1L;
+    }
+
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+    }
+
+    private static String encodeWatermark(Instant updatedAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((updatedAt + "," + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The {@code updatedAt} and id halves of a watermark; the start of the feed when there is none.
+     */
+    private static String[] decodeWatermark(String watermark) {
+        if (watermark == null || watermark.isBlank()) {
+            return new String[]{Instant.EPOCH.toString(), "0"};
+        }
+        return new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.US_ASCII).split(",", 2);
     }
 }
@@ -0,0 +1,21 @@
+package net.jun.springboottest.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas behind {@code spring.datasource}. Each replica pool takes its settings from
+ * {@code spring.datasource.hikari}; a replica without credentials uses the primary's.
+ */
+@ConfigurationProperties("app.datasource.routing")
+public record DataSourceRoutingProperties(boolean enabled,
+                                          @DefaultValue List<Replica> replicas,
+                                          @DefaultValue("5s") Duration maxReplicaLag,
+                                          @DefaultValue("5s") Duration lagCheckInterval) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,73 @@
+package net.jun.springboottest.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Polls {@code SHOW REPLICA STATUS} (MySQL 8.0.22+) on every replica and takes a replica out of the read rotation
+ * while it is further behind than the configured maximum, its replication threads are stopped, or it cannot be
+ * reached. A server that reports no replication status at all (a managed reader, for instance) stays in rotation.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final Duration maxReplicaLag;
+    private final Map<String, Long> lagSeconds = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, Duration maxReplicaLag) {
+        this.routingDataSource = routingDataSource;
+        this.maxReplicaLag = maxReplicaLag;
+    }
+
+    public void checkReplicas() {
+        routingDataSource.getReplicas().forEach((replica, dataSource) -> {
+            long lag = lagSeconds(replica, dataSource);
+            lagSeconds.put(replica, lag);
+            boolean lagging = lag < 0 || lag > maxReplicaLag.toSeconds();
+            if (lagging != routingDataSource.isLagging(replica)) {
+                log.warn("Replica {} {} the read rotation (lag {}s)", replica, lagging ? "left" : "rejoined", lag);
+            }
+            routingDataSource.markLagging(replica, lagging);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        routingDataSource.getReplicas().keySet().forEach(replica ->
+                Gauge.builder("db.replica.lag", lagSeconds, lags -> lags.getOrDefault(replica, 0L))
+                        .description("Seconds the replica is behind the primary, -1 when replication is broken")
+                        .baseUnit("seconds")
+                        .tag("replica", replica)
+                        .register(registry));
+    }
+
+    /**
+     * Seconds behind the source, 0 when the server reports no replication status and -1 when it cannot be trusted.
+     */
+    private static long lagSeconds(String replica, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return 0L;
+            }
+            long lag = status.getLong("Seconds_Behind_Source");
+            return status.wasNull() ? -1L : lag;
+        } catch (SQLException e) {
+            log.warn("Could not read the replication status of replica {}", replica, e);
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package net.jun.springboottest.dto;
+
+import net.jun.springboottest.model.Employee;
+
+import java.util.List;
+
+/**
+ * Employees looked up by id, in the order the ids were given, and the ids that matched no employee.
+ */
+public record EmployeeBatch(List<Employee> employees, List<Long> missing) {
+}
@@ -0,0 +1,11 @@
+package net.jun.springboottest.dto;
+
+/**
+ * Outcome of one row of a bulk request. Results are returned in the same order as the submitted rows.
+ */
+public record EmployeeBulkResult(Long id, String email, Status status) {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, DUPLICATE, NOT_FOUND, INVALID
+    }
+}
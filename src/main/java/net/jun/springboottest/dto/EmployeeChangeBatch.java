@@ -0,0 +1,13 @@
+package net.jun.springboottest.dto;
+
+import net.jun.springboottest.model.Employee;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rows read from the change feed and the instant they were read up to. Unless the batch is full, every change after
+ * the requested watermark and stamped before {@code until} is in {@code employees}.
+ */
+public record EmployeeChangeBatch(List<Employee> employees, Instant until) {
+}
@@ -0,0 +1,13 @@
+package net.jun.springboottest.dto;
+
+import net.jun.springboottest.model.Employee;
+
+import java.util.List;
+
+/**
+ * One batch of the change feed, tombstones included. Passing {@code watermark} back as {@code since} resumes
+ * right after the last row; fewer rows than requested means the caller has caught up for now, and the watermark
+ * then moves up to the instant the feed was read to, so it stays fresh while nothing changes.
+ */
+public record EmployeeChanges(List<Employee> employees, String watermark) {
+}
@@ -0,0 +1,33 @@
+package net.jun.springboottest.dto;
+
+import net.jun.springboottest.model.Employee;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Aggregate that changes whenever the employee collection does. Every insert and update stamps the row, which moves
+ * the latest {@code updatedAt}; an update also bumps the version sum, and a delete moves the row count. The highest
+ * id alone is no guide, since each node takes its own block of ids and an insert can land below the highest.
+ * {@code maxUpdatedAt} is null for an empty collection.
+ */
+public record EmployeeCollectionVersion(long count, long maxId, long versionSum, Instant maxUpdatedAt) {
+
+    /**
+     * The same aggregate computed from rows already loaded, so it describes exactly those rows.
+     */
+    public static EmployeeCollectionVersion of(Collection<Employee> employees) {
+        long maxId = 0;
+        long versionSum = 0;
+        Instant maxUpdatedAt = null;
+        for (Employee employee : employees) {
+            maxId = Math.max(maxId, employee.getId() == null ? 0 : employee.getId());
+            versionSum += employee.getVersion() == null ? 0 : employee.getVersion();
+            Instant updatedAt = employee.getUpdatedAt();
+            if (updatedAt != null && (maxUpdatedAt == null || updatedAt.isAfter(maxUpdatedAt))) {
+                maxUpdatedAt = updatedAt;
+            }
+        }
+        return new EmployeeCollectionVersion(employees.size(), maxId, versionSum, maxUpdatedAt);
+    }
+}
@@ -0,0 +1,10 @@
+package net.jun.springboottest.dto;
+
+/**
+ * Closed projection: queries returning it select only these columns and skip entity hydration.
+ */
+public interface EmployeeContact {
+    Long getId();
+
+    String getEmail();
+}
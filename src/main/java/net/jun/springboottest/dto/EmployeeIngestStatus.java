@@ -0,0 +1,13 @@
+package net.jun.springboottest.dto;
+
+import java.util.UUID;
+
+/**
+ * Where an asynchronously submitted create stands. The employee id is set once the row is written.
+ */
+public record EmployeeIngestStatus(UUID trackingId, State state, Long employeeId) {
+
+    public enum State {
+        QUEUED, CREATED, DUPLICATE, INVALID, FAILED
+    }
+}
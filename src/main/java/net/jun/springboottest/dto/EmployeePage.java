@@ -0,0 +1,8 @@
+package net.jun.springboottest.dto;
+
+import net.jun.springboottest.model.Employee;
+
+import java.util.List;
+
+public record EmployeePage(List<Employee> employees, String nextCursor) {
+}
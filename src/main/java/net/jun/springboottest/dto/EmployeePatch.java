@@ -0,0 +1,12 @@
+package net.jun.springboottest.dto;
+
+/**
+ * Partial update: {@code null} fields are left untouched. When {@code version} is set the update only applies
+ * if the stored row still has that version.
+ */
+public record EmployeePatch(String firstName, String lastName, String email, Long version) {
+
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && email == null;
+    }
+}
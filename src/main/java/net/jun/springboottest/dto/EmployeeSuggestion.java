@@ -0,0 +1,7 @@
+package net.jun.springboottest.dto;
+
+/**
+ * An autocomplete hit: the employee and the lower-cased email or name that starts with the typed prefix.
+ */
+public record EmployeeSuggestion(Long id, String match) {
+}
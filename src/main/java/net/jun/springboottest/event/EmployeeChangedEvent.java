@@ -0,0 +1,14 @@
+package net.jun.springboottest.event;
+
+import net.jun.springboottest.model.Employee;
+
+/**
+ * Published by the service for every employee it writes, inside the writing transaction. {@code employee} is the
+ * written state, or {@code null} for deletes and for changes applied without loading the row (a PATCH).
+ */
+public record EmployeeChangedEvent(Type type, Long id, Employee employee) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,11 @@
+package net.jun.springboottest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidResourceException extends RuntimeException {
+    public InvalidResourceException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package net.jun.springboottest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The change feed can no longer answer from this watermark: tombstones after it may have been purged, so the
+ * client has to reload the collection and start over.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class WatermarkExpiredException extends RuntimeException {
+    public WatermarkExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,202 @@
+package net.jun.springboottest.ingest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeIngestStatus;
+import net.jun.springboottest.exception.ResourceAlreadyExistsException;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.service.EmployeeService;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.jun.springboottest.dto.EmployeeIngestStatus.State.*;
+
+/**
+ * Accepts employee creates into a bounded queue and writes them in batches from a single background thread, so a
+ * burst of signups holds neither request threads nor connections. Batches go through
+ * {@link EmployeeService#saveEmployees}: one email lookup and one batched INSERT per batch, with the same
+ * duplicate and completeness checks as the bulk endpoint.
+ * <p>
+ * A full queue rejects the submission instead of blocking. On shutdown the queue stops accepting and the writer
+ * drains what is left, after the web server has stopped taking requests.
+ */
+@Slf4j
+public class EmployeeWriteBehindQueue implements SmartLifecycle, MeterBinder {
+
+    private final EmployeeService employeeService;
+    private final WriteBehindProperties properties;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<UUID, EmployeeIngestStatus> statuses;
+    private final AtomicLong rejected = new AtomicLong();
+    private final Map<EmployeeIngestStatus.State, AtomicLong> outcomes = new EnumMap<>(EmployeeIngestStatus.State.class);
+    private volatile boolean accepting;
+    private volatile Thread writer;
+
+    public EmployeeWriteBehindQueue(EmployeeService employeeService, WriteBehindProperties properties) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(properties.statusRetention())
+                .build();
+        for (EmployeeIngestStatus.State state : List.of(CREATED, DUPLICATE, INVALID, FAILED)) {
+            outcomes.put(state, new AtomicLong());
+        }
+    }
+
+    /**
+     * Queues the create, or returns empty when the queue is full or shutting down.
+     */
+    public Optional<EmployeeIngestStatus> submit(Employee employee) {
+        UUID trackingId = UUID.randomUUID();
+        EmployeeIngestStatus queued = new EmployeeIngestStatus(trackingId, QUEUED, null);
+        // recorded first, so the writer's outcome cannot be overwritten by it
+        statuses.put(trackingId, queued);
+        if (!accepting || !queue.offer(new Submission(trackingId, employee))) {
+            statuses.invalidate(trackingId);
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+        return Optional.of(queued);
+    }
+
+    public Optional<EmployeeIngestStatus> getStatus(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        Thread thread = new Thread(this::drain, "employee-write-behind");
+        thread.start();
+        writer = thread;
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(properties.drainTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            thread.interrupt();
+            log.warn("Write-behind queue did not drain within {}, {} creates were not written",
+                    properties.drainTimeout(), queue.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    /**
+     * Stops after the web server (and its graceful shutdown) so no create is accepted once draining starts, and
+     * before the datasource closes.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employee.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Creates waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("employee.ingest.rejected", rejected, AtomicLong::get)
+                .description("Creates turned away because the queue was full")
+                .register(registry);
+        outcomes.forEach((state, count) ->
+                FunctionCounter.builder("employee.ingest.written", count, AtomicLong::get)
+                        .description("Queued creates by outcome")
+                        .tag("outcome", state.name().toLowerCase())
+                        .register(registry));
+    }
+
+    private void drain() {
+        List<Submission> batch = new ArrayList<>(properties.batchSize());
+        while (accepting || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, properties.batchSize() - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        List<EmployeeBulkResult> results;
+        try {
+            results = employeeService.saveEmployees(batch.stream().map(Submission::employee).toList());
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent synchronous create took one of the emails; the batch rolled back, so settle row by row
+            batch.forEach(this::writeOne);
+            return;
+        } catch (RuntimeException e) {
+            log.error("Could not write a batch of {} queued creates", batch.size(), e);
+            batch.forEach(submission -> record(submission.trackingId(), FAILED, null));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            EmployeeBulkResult result = results.get(i);
+            record(batch.get(i).trackingId(), switch (result.status()) {
+                case CREATED -> CREATED;
+                case DUPLICATE -> DUPLICATE;
+                default -> INVALID;
+            }, result.id());
+        }
+    }
+
+    private void writeOne(Submission submission) {
+        try {
+            Employee saved = employeeService.saveEmployee(submission.employee());
+            record(submission.trackingId(), CREATED, saved.getId());
+        } catch (ResourceAlreadyExistsException e) {
+            record(submission.trackingId(), DUPLICATE, null);
+        } catch (RuntimeException e) {
+            log.error("Could not write queued create {}", submission.trackingId(), e);
+            record(submission.trackingId(), FAILED, null);
+        }
+    }
+
+    private void record(UUID trackingId, EmployeeIngestStatus.State state, Long employeeId) {
+        statuses.put(trackingId, new EmployeeIngestStatus(trackingId, state, employeeId));
+        outcomes.get(state).incrementAndGet();
+    }
+
+    private record Submission(UUID trackingId, Employee employee) {
+    }
+}
@@ -0,0 +1,17 @@
+package net.jun.springboottest.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous creates, see {@link EmployeeWriteBehindQueue}.
+ */
+@ConfigurationProperties("app.employees.write-behind")
+public record WriteBehindProperties(boolean enabled,
+                                    @DefaultValue("10000") int capacity,
+                                    @DefaultValue("500") int batchSize,
+                                    @DefaultValue("30s") Duration drainTimeout,
+                                    @DefaultValue("1h") Duration statusRetention) {
+}
@@ -1,7 +1,16 @@
 package net.jun.springboottest.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -9,11 +18,26 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@DynamicUpdate
+@SQLRestriction("deleted = false")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee-entities")
+@Table(name = "employees", indexes = {
+        @Index(name = Employee.EMAIL_UNIQUE_INDEX, columnList = "email", unique = true),
+        @Index(name = "idx_employees_last_first", columnList = "last_name, first_name"),
+        @Index(name = "idx_employees_updated_at", columnList = "updated_at, id")
+})
 public class Employee {
 
+    public static final String EMAIL_UNIQUE_INDEX = "uk_employees_email";
+    public static final String ID_SEQUENCE = "employees_seq";
+    public static final int ID_BLOCK_SIZE = 50;
+
+    // pooled sequence (a table on MySQL) so ids are known before the INSERT and inserts can be batched; tables
+    // from the IDENTITY days get it seeded past their ids by EmployeeIdSequenceInitializer
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(name = "first_name", nullable = false)
@@ -22,6 +46,27 @@ public class Employee {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
-    @Column(nullable = false)
+    // nullable so a tombstone can release its address for reuse; older schemas are migrated by
+    // EmployeeEmailColumnInitializer
     private String email;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP(6)")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    /**
+     * Tombstone: deleted rows stay in the table so the change feed can report them, and every other query
+     * skips them through the {@link SQLRestriction}.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean deleted;
 }
@@ -0,0 +1,40 @@
+package net.jun.springboottest.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+
+import java.time.Instant;
+
+/**
+ * An employee change waiting to be relayed, written in the transaction that made the change. Rows are deleted once
+ * the sink has accepted them.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_outbox")
+public class EmployeeOutboxEvent {
+
+    // auto-increment, not a pooled sequence: ids must follow insertion order across nodes, see EmployeeOutboxWriter
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmployeeChangedEvent.Type type;
+
+    // the employee as JSON after the change, null for deletes
+    @Lob
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
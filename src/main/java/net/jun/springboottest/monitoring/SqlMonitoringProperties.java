@@ -0,0 +1,11 @@
+package net.jun.springboottest.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.sql")
+public record SqlMonitoringProperties(@DefaultValue("200ms") Duration slowQueryThreshold,
+                                      @DefaultValue("20") int maxStatementsPerRequest) {
+}
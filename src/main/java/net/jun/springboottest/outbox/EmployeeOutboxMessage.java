@@ -0,0 +1,14 @@
+package net.jun.springboottest.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+
+import java.time.Instant;
+
+/**
+ * One relayed change. {@code sequence} grows with commit order for any one employee, so consumers can drop
+ * redeliveries by keeping the last sequence they applied per employee.
+ */
+public record EmployeeOutboxMessage(long sequence, Long employeeId, EmployeeChangedEvent.Type type,
+                                    @JsonRawValue String employee, Instant createdAt) {
+}
@@ -0,0 +1,100 @@
+package net.jun.springboottest.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.jun.springboottest.model.EmployeeOutboxEvent;
+import net.jun.springboottest.repository.EmployeeOutboxRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves outbox rows to the {@link EmployeeOutboxSink} in id order, a batch per transaction: lock the oldest rows,
+ * publish them, delete them. A failure anywhere before the commit leaves the rows for the next run, so delivery is
+ * at least once. Relays on other nodes block on the same rows instead of skipping ahead, which keeps the order.
+ */
+@Slf4j
+public class EmployeeOutboxRelay implements MeterBinder {
+
+    private final EmployeeOutboxRepository outboxRepository;
+    private final EmployeeOutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong publishNanos = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public EmployeeOutboxRelay(EmployeeOutboxRepository outboxRepository, EmployeeOutboxSink sink,
+                               PlatformTransactionManager transactionManager, int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Seconds between the oldest event of the last relayed batch being written and it reaching the sink.
+     */
+    public double getLagSeconds() {
+        return lagMillis.get() / 1000.0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employee.outbox.published", published, AtomicLong::get)
+                .description("Outbox events accepted by the sink")
+                .register(registry);
+        FunctionCounter.builder("employee.outbox.publish.time", publishNanos, nanos -> nanos.get() / 1e9)
+                .description("Time spent handing batches to the sink")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("employee.outbox.lag", this, EmployeeOutboxRelay::getLagSeconds)
+                .description("Age of the oldest event in the last relayed batch")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private int relayBatch() {
+        List<EmployeeOutboxEvent> batch = outboxRepository.findNextBatch(PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            sink.publish(batch.stream()
+                    .map(event -> new EmployeeOutboxMessage(event.getId(), event.getEmployeeId(), event.getType(),
+                            event.getPayload(), event.getCreatedAt()))
+                    .toList());
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox sink rejected " + batch.size() + " events", e);
+        }
+        publishNanos.addAndGet(System.nanoTime() - start);
+        outboxRepository.deleteAllInBatch(batch);
+        published.addAndGet(batch.size());
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+        log.debug("Relayed {} outbox events in {} ms", batch.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return batch.size();
+    }
+}
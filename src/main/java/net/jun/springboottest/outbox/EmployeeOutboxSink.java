@@ -0,0 +1,12 @@
+package net.jun.springboottest.outbox;
+
+import java.util.List;
+
+/**
+ * Where relayed changes go. Messages arrive in outbox order; a batch that throws is retried as a whole on the next
+ * relay run, so a sink may see a message more than once.
+ */
+public interface EmployeeOutboxSink {
+
+    void publish(List<EmployeeOutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,95 @@
+package net.jun.springboottest.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+import net.jun.springboottest.model.Employee;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every {@link EmployeeChangedEvent} to the {@code employee_outbox} table in the transaction that published
+ * it, so the change and its event commit or roll back together.
+ * <p>
+ * Events are collected for the transaction and inserted in one JDBC batch just before commit, after a flush, so
+ * payloads carry the committed version. Outbox ids are auto-increment values taken under the employee row lock the
+ * change already holds, which keeps one employee's events in commit order even with writers on several nodes.
+ */
+public class EmployeeOutboxWriter {
+
+    private static final String INSERT = "INSERT INTO employee_outbox (employee_id, type, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public EmployeeOutboxWriter(EntityManager entityManager, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Employee changes must be published inside the transaction that makes them");
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private void write(List<EmployeeChangedEvent> events) {
+        entityManager.flush();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (EmployeeChangedEvent event : events) {
+            rows.add(new Object[]{event.id(), event.type().name(), payload(event), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    private String payload(EmployeeChangedEvent event) {
+        if (event.type() == EmployeeChangedEvent.Type.DELETED) {
+            return null;
+        }
+        // partial updates are single UPDATE statements that publish no entity, so read the row they left
+        Employee employee = event.employee() != null ? event.employee() : entityManager.find(Employee.class, event.id());
+        if (employee == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(employee);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class PendingEvents implements TransactionSynchronization {
+
+        private final List<EmployeeChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeOutboxWriter.this);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package net.jun.springboottest.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The employee change outbox, see {@link EmployeeOutboxWriter} and {@link EmployeeOutboxRelay}. {@code file} is
+ * where the default sink appends events when no other {@link EmployeeOutboxSink} bean is defined.
+ */
+@ConfigurationProperties("app.outbox")
+public record OutboxProperties(boolean enabled,
+                               @DefaultValue("500") int batchSize,
+                               @DefaultValue("1s") Duration relayInterval,
+                               @DefaultValue("outbox/employee-events.ndjson") Path file) {
+}
@@ -0,0 +1,32 @@
+package net.jun.springboottest.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Takes ids from the {@code employees_seq} table that backs the JPA pooled sequence. Hibernate treats a value
+ * {@code v} read from that table as reserving {@code (v - 50, v]}, so using {@code v} itself can never collide
+ * with ids handed out on the JPA side. Both statements must run on one connection for LAST_INSERT_ID to apply.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+class EmployeeIdAllocator {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+
+    Mono<Long> nextId() {
+        return databaseClient.inConnection(connection ->
+                Mono.from(connection.createStatement(
+                                "UPDATE employees_seq SET next_val = LAST_INSERT_ID(next_val) + " + ALLOCATION_SIZE)
+                                .execute())
+                        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .then(Mono.from(connection.createStatement("SELECT CAST(LAST_INSERT_ID() AS SIGNED)").execute()))
+                        .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class)))));
+    }
+}
@@ -0,0 +1,64 @@
+package net.jun.springboottest.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static net.jun.springboottest.codec.BinaryMediaTypes.APPLICATION_CBOR_SEQ_VALUE;
+import static net.jun.springboottest.codec.BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE;
+
+/**
+ * WebFlux counterpart of {@link net.jun.springboottest.controller.EmployeeController}, active in the
+ * {@code reactive} profile only.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/employees")
+@RequiredArgsConstructor
+public class ReactiveEmployeeController {
+    private final ReactiveEmployeeService employeeService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ReactiveEmployee> createEmployee(@RequestBody ReactiveEmployee employee) {
+        return employeeService.saveEmployee(employee);
+    }
+
+    @GetMapping
+    public Flux<ReactiveEmployee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping(value = "/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<ReactiveEmployee> streamEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> getEmployeeById(@PathVariable Long id) {
+        return employeeService.getEmployeeById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> updateEmployee(@PathVariable("id") long employeeId,
+                                                                 @RequestBody ReactiveEmployee employee) {
+        return employeeService.updateEmployee(employeeId, employee)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> deleteEmployee(@PathVariable("id") long employeeId) {
+        return employeeService.deleteEmployee(employeeId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
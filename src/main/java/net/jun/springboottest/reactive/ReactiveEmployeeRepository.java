@@ -0,0 +1,35 @@
+package net.jun.springboottest.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface ReactiveEmployeeRepository extends R2dbcRepository<ReactiveEmployee, Long> {
+
+    // tombstones stay in the table for the change feed, so every read filters them out
+    @Query("SELECT * FROM employees WHERE id = :id AND deleted = false")
+    Mono<ReactiveEmployee> findLiveById(Long id);
+
+    @Query("SELECT * FROM employees WHERE deleted = false")
+    Flux<ReactiveEmployee> findAllLive();
+
+    @Query("SELECT * FROM employees WHERE email = :email AND deleted = false")
+    Mono<ReactiveEmployee> findByEmail(String email);
+
+    @Query("SELECT * FROM employees WHERE first_name = :firstName AND last_name = :lastName AND deleted = false")
+    Flux<ReactiveEmployee> findByName(String firstName, String lastName);
+
+    @Modifying
+    @Query("UPDATE employees SET first_name = :firstName, last_name = :lastName, email = :email, version = version + 1, "
+            + "updated_at = :updatedAt WHERE id = :id AND deleted = false")
+    Mono<Integer> update(Long id, String firstName, String lastName, String email, Instant updatedAt);
+
+    @Modifying
+    @Query("UPDATE employees SET deleted = true, email = NULL, version = version + 1, updated_at = :deletedAt "
+            + "WHERE id = :id AND deleted = false")
+    Mono<Integer> markDeletedById(Long id, Instant deletedAt);
+}
@@ -0,0 +1,18 @@
+package net.jun.springboottest.reactive;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+    Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee);
+
+    Mono<ReactiveEmployee> getEmployeeById(Long id);
+
+    Flux<ReactiveEmployee> getAllEmployees();
+
+    Flux<ReactiveEmployee> getEmployeesByName(String firstName, String lastName);
+
+    Mono<ReactiveEmployee> updateEmployee(Long id, ReactiveEmployee employee);
+
+    Mono<ReactiveEmployee> deleteEmployee(Long id);
+}
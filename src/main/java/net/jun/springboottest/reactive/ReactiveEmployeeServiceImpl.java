@@ -0,0 +1,76 @@
+package net.jun.springboottest.reactive;
+
+import lombok.RequiredArgsConstructor;
+import net.jun.springboottest.exception.ResourceAlreadyExistsException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final EmployeeIdAllocator idAllocator;
+
+    @Override
+    public Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee) {
+        return idAllocator.nextId()
+                .flatMap(id -> {
+                    employee.setId(id);
+                    employee.setUpdatedAt(Instant.now());
+                    // insert, not save: the id is already set, so save() would issue an UPDATE
+                    return entityTemplate.insert(employee);
+                })
+                .onErrorMap(DuplicateKeyException.class, e -> emailConflict(employee, e));
+    }
+
+    @Override
+    public Mono<ReactiveEmployee> getEmployeeById(Long id) {
+        return employeeRepository.findLiveById(id);
+    }
+
+    @Override
+    public Flux<ReactiveEmployee> getAllEmployees() {
+        return employeeRepository.findAllLive();
+    }
+
+    @Override
+    public Flux<ReactiveEmployee> getEmployeesByName(String firstName, String lastName) {
+        return employeeRepository.findByName(firstName, lastName);
+    }
+
+    @Override
+    public Mono<ReactiveEmployee> updateEmployee(Long id, ReactiveEmployee employee) {
+        Instant updatedAt = Instant.now();
+        return employeeRepository.update(id, employee.getFirstName(), employee.getLastName(), employee.getEmail(), updatedAt)
+                .onErrorMap(DuplicateKeyException.class, e -> emailConflict(employee, e))
+                .filter(updated -> updated > 0)
+                .map(updated -> ReactiveEmployee.builder()
+                        .id(id)
+                        .firstName(employee.getFirstName())
+                        .lastName(employee.getLastName())
+                        .email(employee.getEmail())
+                        .updatedAt(updatedAt)
+                        .build());
+    }
+
+    @Override
+    public Mono<ReactiveEmployee> deleteEmployee(Long id) {
+        return employeeRepository.findLiveById(id)
+                .flatMap(employee -> employeeRepository.markDeletedById(id, Instant.now())
+                        .filter(deleted -> deleted > 0)
+                        .map(deleted -> employee));
+    }
+
+    private static ResourceAlreadyExistsException emailConflict(ReactiveEmployee employee, Throwable cause) {
+        return new ResourceAlreadyExistsException("Employee already exists with email: " + employee.getEmail(), cause);
+    }
+}
@@ -0,0 +1,38 @@
+package net.jun.springboottest.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets {@code employees.email} hold NULL, which tombstones need to release their address. Schemas created before
+ * tombstones have the column NOT NULL, and {@code hbm2ddl update} never relaxes an existing column. Runs once the
+ * schema exists and only on MySQL; elsewhere the schema is always created from the entity.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class EmployeeEmailColumnInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                metaData -> metaData.getDatabaseProductName());
+        if (!"MySQL".equals(database)) {
+            return;
+        }
+        String nullable = jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'employees' AND column_name = 'email'", String.class);
+        if ("NO".equals(nullable)) {
+            log.info("Making employees.email nullable for tombstones");
+            jdbcTemplate.execute("ALTER TABLE employees MODIFY email VARCHAR(255) NULL");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package net.jun.springboottest.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.jun.springboottest.model.Employee;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves the {@code employees_seq} table past the ids already in {@code employees}. Tables created while ids were
+ * IDENTITY columns get the sequence table from {@code hbm2ddl update} starting at 1, and new inserts would reuse
+ * existing ids. Hibernate hands out a block ending at the value it reads, so the value must be at least a block
+ * above the largest id. Only ever raises it, and runs only on MySQL; elsewhere the schema is always created new.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class EmployeeIdSequenceInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                metaData -> metaData.getDatabaseProductName());
+        if (!"MySQL".equals(database)) {
+            return;
+        }
+        Integer seeded = new TransactionTemplate(transactionManager).execute(status -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM employees", Long.class);
+            long floor = maxId + Employee.ID_BLOCK_SIZE;
+            return jdbcTemplate.update("UPDATE " + Employee.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?",
+                    floor, floor);
+        });
+        if (seeded != null && seeded > 0) {
+            log.info("Moved {} past the existing employee ids", Employee.ID_SEQUENCE);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package net.jun.springboottest.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import net.jun.springboottest.model.Employee;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Writes every live employee as a JSON array straight from the JDBC result set, without managed entities, a
+ * persistence context or an intermediate list. Each row becomes a detached {@link Employee} written with the
+ * generator's own codec, so the output is what that mapper writes for a {@code List<Employee>}, and a CBOR or Smile
+ * generator writes the binary form of the same array. The generator must come from an {@code ObjectMapper}.
+ * <p>
+ * Run it inside a transaction; on MySQL rows are streamed from the server one at a time instead of being buffered by
+ * the driver. That keeps a pooled connection and its transaction open until the last row is written, so a client
+ * that downloads slowly holds one for as long as it takes.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeJsonExporter {
+
+    private static final String SELECT_LIVE = "SELECT id, first_name, last_name, email, version, updated_at "
+            + "FROM employees WHERE deleted = false ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void writeAll(JsonGenerator generator) {
+        // updated_at is stored in UTC, as Hibernate writes it
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        try {
+            generator.writeStartArray();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_LIVE,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                if ("MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                }
+                return statement;
+            }, (ResultSet row) -> writeRow(generator, row, utc));
+            generator.writeEndArray();
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRow(JsonGenerator generator, ResultSet row, Calendar utc) throws SQLException {
+        Timestamp updatedAt = row.getTimestamp(6, utc);
+        Employee employee = Employee.builder()
+                .id(row.getLong(1))
+                .firstName(row.getString(2))
+                .lastName(row.getString(3))
+                .email(row.getString(4))
+                .version(row.getLong(5))
+                .updatedAt(updatedAt != null ? updatedAt.toInstant() : null)
+                .build();
+        try {
+            generator.writeObject(employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package net.jun.springboottest.repository;
+
+import jakarta.persistence.LockModeType;
+import net.jun.springboottest.model.EmployeeOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface EmployeeOutboxRepository extends JpaRepository<EmployeeOutboxEvent, Long> {
+
+    /**
+     * The oldest pending events, locked so relays on other nodes wait rather than publish them out of order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EmployeeOutboxEvent e ORDER BY e.id")
+    List<EmployeeOutboxEvent> findNextBatch(Pageable pageable);
+}
@@ -1,13 +1,22 @@
 package net.jun.springboottest.repository;
 
+import jakarta.persistence.LockModeType;
+import net.jun.springboottest.dto.EmployeeCollectionVersion;
+import net.jun.springboottest.dto.EmployeeContact;
 import net.jun.springboottest.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
     Optional<Employee> findByEmail(String email);
 
@@ -17,9 +26,84 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query("SELECT e FROM Employee e WHERE e.firstName = :firstName and e.lastName = :lastName")
     Employee findByJPQLParam(String firstName, String lastName);
 
-    @Query(value = "SELECT * FROM employees WHERE first_name = ?1 and last_name = ?2", nativeQuery = true)
+    @Query(value = "SELECT * FROM employees WHERE first_name = ?1 and last_name = ?2 and deleted = false", nativeQuery = true)
     Employee findByNativeSQL(String firstName, String lastName);
 
-    @Query(value = "SELECT * FROM employees WHERE first_name = :firstName and last_name = :lastName", nativeQuery = true)
+    @Query(value = "SELECT * FROM employees WHERE first_name = :firstName and last_name = :lastName and deleted = false", nativeQuery = true)
     Employee findByNativeSQLWithParam(String firstName, String lastName);
+
+    @Query("SELECT e FROM Employee e WHERE e.firstName = :firstName and e.lastName = :lastName ORDER BY e.id")
+    List<Employee> findAllByName(String firstName, String lastName);
+
+    /**
+     * Full-text search over name and email, best match first. {@code query} is in MySQL boolean mode syntax; the
+     * FULLTEXT index is created by {@link EmployeeSearchIndexInitializer}.
+     */
+    @Query(value = "SELECT * FROM employees WHERE MATCH(first_name, last_name, email) AGAINST (:query IN BOOLEAN MODE) "
+            + "AND deleted = false ORDER BY MATCH(first_name, last_name, email) AGAINST (:query IN BOOLEAN MODE) DESC, id "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Employee> search(@Param("query") String query, @Param("limit") int limit);
+
+    List<EmployeeContact> findContactsByFirstNameAndLastNameOrderById(String firstName, String lastName);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Loads the row with {@code SELECT ... FOR UPDATE}, so it cannot change before the caller deletes it in the
+     * same transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Employee e WHERE e.id = :id")
+    Optional<Employee> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Turns the row into a tombstone with a single {@code UPDATE ... WHERE id = ?}, unlike {@link #deleteById},
+     * which loads the entity first and removes the row for good. Returns the number of rows deleted.
+     */
+    @Modifying
+    @Query("UPDATE Employee e SET e.deleted = true, e.email = NULL, e.version = e.version + 1, e.updatedAt = :now "
+            + "WHERE e.id = :id AND e.deleted = false")
+    int markDeletedById(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Employee e SET e.deleted = true, e.email = NULL, e.version = e.version + 1, e.updatedAt = :now "
+            + "WHERE e.id = :id AND e.version = :version AND e.deleted = false")
+    int markDeletedByIdAndVersion(@Param("id") Long id, @Param("version") Long version, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Employee e SET e.deleted = true, e.email = NULL, e.version = e.version + 1, e.updatedAt = :now "
+            + "WHERE e.id IN :ids AND e.deleted = false")
+    int markDeletedByIds(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Query(value = "SELECT id FROM employees WHERE id IN (:ids) AND deleted = true AND updated_at = :now",
+            nativeQuery = true)
+    List<Long> findIdsDeletedAt(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Deletes up to {@code limit} tombstones stamped before {@code before}. Every one of them is due, so no order is
+     * asked for; {@code DELETE ... ORDER BY} is MySQL-only and would fail on H2, where the benchmarks run.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM employees WHERE deleted = true AND updated_at < :before LIMIT :limit",
+            nativeQuery = true)
+    int deleteTombstonesBefore(@Param("before") Instant before, @Param("limit") int limit);
+
+    /**
+     * Inserted, updated and deleted rows after the {@code (updatedAt, id)} keyset position and stamped before
+     * {@code until}, tombstones included. Native, so the entity's restriction on deleted rows does not apply.
+     */
+    @Query(value = "SELECT * FROM employees WHERE updated_at >= :since AND (updated_at > :since OR id > :afterId) "
+            + "AND updated_at < :until ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+    List<Employee> findChangesSince(@Param("since") Instant since, @Param("afterId") long afterId,
+                                    @Param("until") Instant until, @Param("limit") int limit);
+
+    @Query("SELECT new net.jun.springboottest.dto.EmployeeCollectionVersion("
+            + "COUNT(e), COALESCE(MAX(e.id), 0), COALESCE(SUM(e.version), 0), MAX(e.updatedAt)) FROM Employee e")
+    EmployeeCollectionVersion findCollectionVersion();
+
+    /**
+     * Keyset page: rows strictly after {@code id}, walked along the primary key.
+     */
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
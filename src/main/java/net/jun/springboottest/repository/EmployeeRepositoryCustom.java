@@ -0,0 +1,22 @@
+package net.jun.springboottest.repository;
+
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.model.Employee;
+
+import java.util.stream.Stream;
+
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Issues a single {@code UPDATE} that sets only the non-null fields of {@code patch} and bumps the version,
+     * without loading the row first. Must run inside a transaction.
+     *
+     * @return the number of rows updated, 0 when the id is unknown or the expected version is stale
+     */
+    int patch(Long id, EmployeePatch patch);
+
+    /**
+     * Row-by-row stream over the whole table. The caller must consume it inside a transaction and close it.
+     */
+    Stream<Employee> streamAll();
+}
@@ -0,0 +1,66 @@
+package net.jun.springboottest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.model.Employee;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, EmployeePatch patch) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = builder.createCriteriaUpdate(Employee.class);
+        Root<Employee> employee = update.from(Employee.class);
+
+        if (patch.firstName() != null) {
+            update.set(employee.<String>get("firstName"), patch.firstName());
+        }
+        if (patch.lastName() != null) {
+            update.set(employee.<String>get("lastName"), patch.lastName());
+        }
+        if (patch.email() != null) {
+            update.set(employee.<String>get("email"), patch.email());
+        }
+        update.set(employee.<Long>get("version"), builder.sum(employee.<Long>get("version"), 1L));
+        // bulk updates bypass @UpdateTimestamp
+        update.set(employee.<Instant>get("updatedAt"), Instant.now());
+
+        Predicate where = builder.and(builder.equal(employee.get("id"), id), builder.isFalse(employee.get("deleted")));
+        if (patch.version() != null) {
+            where = builder.and(where, builder.equal(employee.get("version"), patch.version()));
+        }
+        update.where(where);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        TypedQuery<Employee> query = entityManager.createQuery("SELECT e FROM Employee e ORDER BY e.id", Employee.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (isMySql()) {
+            // the MySQL driver only streams when the fetch size is Integer.MIN_VALUE, which other drivers reject
+            query.setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+        }
+        return query.getResultStream();
+    }
+
+    private boolean isMySql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+    }
+}
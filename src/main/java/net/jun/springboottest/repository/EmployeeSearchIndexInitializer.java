@@ -0,0 +1,40 @@
+package net.jun.springboottest.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the FULLTEXT index behind {@link EmployeeRepository#search}, which JPA index annotations cannot declare.
+ * Runs once the schema exists and only on MySQL; elsewhere, such as the H2 benchmarks, search is unavailable.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class EmployeeSearchIndexInitializer implements InitializingBean {
+
+    static final String SEARCH_INDEX = "ft_employees_search";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        String database = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                metaData -> metaData.getDatabaseProductName());
+        if (!"MySQL".equals(database)) {
+            log.info("Skipping the {} index on {}", SEARCH_INDEX, database);
+            return;
+        }
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'employees' AND index_name = ?", Integer.class, SEARCH_INDEX);
+        if (existing == null || existing == 0) {
+            log.info("Creating the {} index", SEARCH_INDEX);
+            jdbcTemplate.execute("ALTER TABLE employees ADD FULLTEXT INDEX " + SEARCH_INDEX + " (first_name, last_name, email)");
+        }
+    }
+}
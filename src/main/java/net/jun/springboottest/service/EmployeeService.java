@@ -1,18 +1,66 @@
 package net.jun.springboottest.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeChangeBatch;
+import net.jun.springboottest.dto.EmployeeCollectionVersion;
+import net.jun.springboottest.dto.EmployeeContact;
+import net.jun.springboottest.dto.EmployeePatch;
 import net.jun.springboottest.model.Employee;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
 
     Optional<Employee> getEmployeeById(Long id);
 
+    EmployeeBatch getEmployeesByIds(List<Long> ids);
+
     List<Employee> getAllEmployees();
 
+    EmployeeCollectionVersion getCollectionVersion();
+
+    List<Employee> getEmployeesAfter(long afterId, int limit);
+
+    void forEachEmployee(Consumer<Employee> action);
+
+    /**
+     * Writes all employees to the generator as an array, straight from the result set. The generator decides the
+     * format: JSON, CBOR or Smile.
+     */
+    void writeEmployeesAsJson(JsonGenerator generator);
+
+    EmployeeChangeBatch getChangesSince(Instant since, long afterId, int limit);
+
+    List<Employee> getEmployeesByName(String firstName, String lastName);
+
+    List<EmployeeContact> getEmployeeContactsByName(String firstName, String lastName);
+
+    List<Employee> searchEmployees(String query, int limit);
+
     Employee updateEmployee(Employee employee);
 
-    void deleteEmployee(Long id);
+    /**
+     * Replaces the names and email of the employee, reading the current row in the same read-write transaction.
+     * Empty when there is no such employee; throws an {@code OptimisticLockingFailureException} when
+     * {@code expectedVersion} is given and the row is no longer at it.
+     */
+    Optional<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion);
+
+    boolean patchEmployee(Long id, EmployeePatch patch);
+
+    boolean deleteEmployee(Long id, Long expectedVersion);
+
+    Optional<Employee> deleteEmployeeReturning(Long id, Long expectedVersion);
+
+    List<EmployeeBulkResult> saveEmployees(List<Employee> employees);
+
+    List<EmployeeBulkResult> updateEmployees(List<Employee> employees);
+
+    List<EmployeeBulkResult> deleteEmployees(List<Long> ids);
 }
@@ -0,0 +1,54 @@
+package net.jun.springboottest.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jun.springboottest.concurrent.SingleFlight;
+import net.jun.springboottest.model.Employee;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical reads in {@link EmployeeServiceImpl} share one query. Only reads running in their own
+ * read-only transaction take part: inside a read-write transaction a caller may have written rows that another
+ * caller's query would not see.
+ */
+@Component
+public class EmployeeReadCoalescer implements MeterBinder {
+
+    private final SingleFlight<Long, Optional<Employee>> byId = new SingleFlight<>();
+    private final SingleFlight<String, List<Employee>> all = new SingleFlight<>();
+
+    public Optional<Employee> findById(Long id, Supplier<Optional<Employee>> query) {
+        return isolated() ? query.get() : byId.execute(id, query);
+    }
+
+    public List<Employee> findAll(Supplier<List<Employee>> query) {
+        return isolated() ? query.get() : all.execute("all", query);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "by_id", byId);
+        bind(registry, "all", all);
+    }
+
+    private static boolean isolated() {
+        return !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static void bind(MeterRegistry registry, String query, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("employee.queries.executed", flight, SingleFlight::getExecuted)
+                .description("Coalescable employee queries sent to the database")
+                .tag("query", query)
+                .register(registry);
+        FunctionCounter.builder("employee.queries.coalesced", flight, SingleFlight::getJoined)
+                .description("Employee queries saved by sharing a concurrent identical query")
+                .tag("query", query)
+                .register(registry);
+    }
+}
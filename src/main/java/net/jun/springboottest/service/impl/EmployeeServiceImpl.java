@@ -1,50 +1,429 @@
 package net.jun.springboottest.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import net.jun.springboottest.exception.ResourceNotFoundException;
+import net.jun.springboottest.changes.ChangeFeedProperties;
+import net.jun.springboottest.datasource.ReadWriteRoutingDataSource;
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeChangeBatch;
+import net.jun.springboottest.dto.EmployeeCollectionVersion;
+import net.jun.springboottest.dto.EmployeeContact;
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+import net.jun.springboottest.exception.InvalidResourceException;
+import net.jun.springboottest.exception.ResourceAlreadyExistsException;
+import net.jun.springboottest.exception.WatermarkExpiredException;
 import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeJsonExporter;
 import net.jun.springboottest.repository.EmployeeRepository;
 import net.jun.springboottest.service.EmployeeService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static net.jun.springboottest.config.CacheConfig.EMPLOYEES_CACHE;
+import static net.jun.springboottest.dto.EmployeeBulkResult.Status.*;
+
+/**
+ * Every method runs in one transaction. Reads are read-only by default, which makes Hibernate skip dirty checking,
+ * flushing and snapshot copies and marks the JDBC connection read-only; writes opt in with {@code @Transactional}.
+ */
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Timed(value = "employee.service", histogram = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    /**
+     * InnoDB's default full-text stopwords, INFORMATION_SCHEMA.INNODB_FT_DEFAULT_STOPWORD.
+     */
+    private static final Set<String> INNODB_STOPWORDS = Set.of("a", "about", "an", "are", "as", "at", "be", "by",
+            "com", "de", "en", "for", "from", "how", "i", "in", "is", "it", "la", "of", "on", "or", "that", "the",
+            "this", "to", "was", "what", "when", "where", "who", "will", "with", "und", "www");
+
     private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeReadCoalescer readCoalescer;
+    private final EmployeeJsonExporter employeeJsonExporter;
+    private final ChangeFeedProperties changeFeed;
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
-
-        employeeRepository.findByEmail(employee.getEmail())
-                .ifPresent(e -> {
-                    throw new ResourceNotFoundException("Employee already exists with email: " + employee.getEmail());
-                });
-
-        return employeeRepository.save(employee);
+        requireEmail(employee.getEmail());
+        // the unique email index decides, so a create is a single INSERT and concurrent creates cannot race
+        employee.setId(null);
+        employee.setVersion(null);
+        try {
+            Employee saved = employeeRepository.saveAndFlush(employee);
+            publish(EmployeeChangedEvent.Type.CREATED, saved.getId(), saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with email: " + employee.getEmail(), e);
+            }
+            throw e;
+        }
     }
 
     @Override
+    @Cacheable(cacheNames = EMPLOYEES_CACHE, key = "#id", unless = "#result == null")
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        // a burst of cache misses for one id runs one SELECT, on the primary: the result is cached, and a replica
+        // may not have applied a PATCH or DELETE that just evicted the entry
+        return readCoalescer.findById(id,
+                () -> ReadWriteRoutingDataSource.onPrimary(() -> employeeRepository.findById(id)));
+    }
+
+    @Override
+    public EmployeeBatch getEmployeesByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, Employee> found = employeeRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        List<Employee> employees = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Employee employee = found.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new EmployeeBatch(employees, missing);
     }
 
     @Override
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        // a caller joining a query that started before its own write committed gets the older list, so the
+        // controller tags the list by the rows returned, never by getCollectionVersion
+        return readCoalescer.findAll(employeeRepository::findAll);
+    }
+
+    @Override
+    public EmployeeCollectionVersion getCollectionVersion() {
+        return employeeRepository.findCollectionVersion();
+    }
+
+    @Override
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(limit));
+    }
+
+    @Override
+    public void forEachEmployee(Consumer<Employee> action) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                action.accept(employee);
+                // keep the persistence context from growing with the table
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    public void writeEmployeesAsJson(JsonGenerator generator) {
+        employeeJsonExporter.writeAll(generator);
+    }
+
+    @Override
+    public List<Employee> getEmployeesByName(String firstName, String lastName) {
+        return employeeRepository.findAllByName(firstName, lastName);
     }
 
     @Override
+    public List<EmployeeContact> getEmployeeContactsByName(String firstName, String lastName) {
+        return employeeRepository.findContactsByFirstNameAndLastNameOrderById(firstName, lastName);
+    }
+
+    @Override
+    public List<Employee> searchEmployees(String query, int limit) {
+        String terms = toPrefixTerms(query);
+        return terms.isEmpty() ? List.of() : employeeRepository.search(terms, limit);
+    }
+
+    @Override
+    @Transactional
+    public EmployeeChangeBatch getChangesSince(Instant since, long afterId, int limit) {
+        // deliberately not read-only, which keeps the feed on the primary: the settle time is measured against
+        // the primary's commits, and a lagging replica could hand out a watermark past rows it has not applied yet
+        Instant now = Instant.now();
+        // the start of the feed never expires; any later watermark may sit before tombstones already purged
+        boolean start = since.equals(Instant.EPOCH) && afterId == 0;
+        if (!start && since.isBefore(now.minus(changeFeed.tombstoneRetention()))) {
+            throw new WatermarkExpiredException("Watermark " + since + " is older than the tombstone retention of "
+                    + changeFeed.tombstoneRetention());
+        }
+        // rows stamped within the settle time may still be uncommitted, see ChangeFeedProperties; microseconds are
+        // all the column keeps, so the bound handed back is exactly the one queried
+        Instant until = now.minus(changeFeed.settleTime()).truncatedTo(ChronoUnit.MICROS);
+        return new EmployeeChangeBatch(employeeRepository.findChangesSince(since, afterId, until, limit), until);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#result.id")
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        requireEmail(employee.getEmail());
+        Employee updated = employeeRepository.save(employee);
+        publish(EmployeeChangedEvent.Type.UPDATED, updated.getId(), updated);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#id", unless = "#result == null")
+    public Optional<Employee> updateEmployee(Long id, Employee employee, Long expectedVersion) {
+        requireEmail(employee.getEmail());
+        // read-write, so the row comes from the primary: a lagging replica would hand back an older version
+        Optional<Employee> current = employeeRepository.findById(id);
+        current.ifPresent(e -> {
+            if (expectedVersion != null && !expectedVersion.equals(e.getVersion())) {
+                throw new OptimisticLockingFailureException("Employee " + id + " is no longer at version " + expectedVersion);
+            }
+            e.setFirstName(employee.getFirstName());
+            e.setLastName(employee.getLastName());
+            e.setEmail(employee.getEmail());
+            // flushing bumps the version now, so the caller's ETag is the committed one
+            employeeRepository.saveAndFlush(e);
+            publish(EmployeeChangedEvent.Type.UPDATED, id, e);
+        });
+        return current;
     }
 
     @Override
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, key = "#id")
+    public boolean patchEmployee(Long id, EmployeePatch patch) {
+        if (patch.email() != null) {
+            requireEmail(patch.email());
+        }
+        int updated;
+        try {
+            updated = employeeRepository.patch(id, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailConflict(e)) {
+                throw new ResourceAlreadyExistsException("Employee already exists with email: " + patch.email(), e);
+            }
+            throw e;
+        }
+        // only the failure path pays for a second statement, to tell a stale version from a missing row
+        if (updated == 0 && patch.version() != null && employeeRepository.existsById(id)) {
+            throw new OptimisticLockingFailureException("Employee " + id + " is no longer at version " + patch.version());
+        }
+        if (updated > 0) {
+            publish(EmployeeChangedEvent.Type.UPDATED, id, null);
+        }
+        return updated > 0;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, key = "#id")
+    public boolean deleteEmployee(Long id, Long expectedVersion) {
+        int deleted = expectedVersion == null
+                ? employeeRepository.markDeletedById(id, Instant.now())
+                : employeeRepository.markDeletedByIdAndVersion(id, expectedVersion, Instant.now());
+        if (deleted > 0) {
+            publish(EmployeeChangedEvent.Type.DELETED, id, null);
+            return true;
+        }
+        if (expectedVersion == null) {
+            return false;
+        }
+        if (employeeRepository.existsById(id)) {
+            throw new OptimisticLockingFailureException("Employee " + id + " is no longer at version " + expectedVersion);
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, key = "#id")
+    public Optional<Employee> deleteEmployeeReturning(Long id, Long expectedVersion) {
+        // the row lock makes the returned state exactly what was deleted, as a DELETE ... RETURNING would
+        Optional<Employee> employee = employeeRepository.findByIdForUpdate(id);
+        employee.ifPresent(e -> {
+            if (expectedVersion != null && !expectedVersion.equals(e.getVersion())) {
+                throw new OptimisticLockingFailureException("Employee " + id + " is no longer at version " + expectedVersion);
+            }
+            entityManager.detach(e);
+            employeeRepository.markDeletedById(id, Instant.now());
+            publish(EmployeeChangedEvent.Type.DELETED, id, null);
+        });
+        return employee;
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBulkResult> saveEmployees(List<Employee> employees) {
+        Set<String> takenEmails = findTakenEmails(employees.stream()
+                .filter(EmployeeServiceImpl::isComplete)
+                .map(Employee::getEmail)
+                .toList());
+
+        List<EmployeeBulkResult> results = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            if (!isComplete(employee)) {
+                results.add(new EmployeeBulkResult(null, employee.getEmail(), INVALID));
+            } else if (!takenEmails.add(normalize(employee.getEmail()))) {
+                results.add(new EmployeeBulkResult(null, employee.getEmail(), DUPLICATE));
+            } else {
+                // persist assigns the id from the pooled sequence; the INSERT itself is batched at flush. A version
+                // copied from a GET would make save() merge into a copy and leave this instance without an id
+                employee.setId(null);
+                employee.setVersion(null);
+                Employee saved = employeeRepository.save(employee);
+                publish(EmployeeChangedEvent.Type.CREATED, saved.getId(), saved);
+                results.add(new EmployeeBulkResult(saved.getId(), saved.getEmail(), CREATED));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, allEntries = true)
+    public List<EmployeeBulkResult> updateEmployees(List<Employee> employees) {
+        Map<Long, Employee> existing = employeeRepository.findAllById(employees.stream()
+                        .map(Employee::getId)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+        Set<String> takenEmails = findTakenEmails(employees.stream()
+                .filter(employee -> existing.containsKey(employee.getId()) && isComplete(employee))
+                .filter(employee -> !normalize(employee.getEmail()).equals(normalize(existing.get(employee.getId()).getEmail())))
+                .map(Employee::getEmail)
+                .toList());
+
+        List<EmployeeBulkResult> results = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            Employee current = employee.getId() == null ? null : existing.get(employee.getId());
+            if (current == null) {
+                results.add(new EmployeeBulkResult(employee.getId(), employee.getEmail(), NOT_FOUND));
+            } else if (!isComplete(employee)) {
+                results.add(new EmployeeBulkResult(employee.getId(), employee.getEmail(), INVALID));
+            } else if (!normalize(employee.getEmail()).equals(normalize(current.getEmail()))
+                    && !takenEmails.add(normalize(employee.getEmail()))) {
+                results.add(new EmployeeBulkResult(employee.getId(), employee.getEmail(), DUPLICATE));
+            } else {
+                // dirty checking turns these into batched UPDATEs at flush
+                current.setFirstName(employee.getFirstName());
+                current.setLastName(employee.getLastName());
+                current.setEmail(employee.getEmail());
+                publish(EmployeeChangedEvent.Type.UPDATED, current.getId(), current);
+                results.add(new EmployeeBulkResult(current.getId(), current.getEmail(), UPDATED));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, allEntries = true)
+    public List<EmployeeBulkResult> deleteEmployees(List<Long> ids) {
+        Set<Long> requested = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> deleted = Set.of();
+        if (!requested.isEmpty()) {
+            // updated_at keeps microseconds, so stamp a value that compares equal once stored
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            int count = employeeRepository.markDeletedByIds(requested, now);
+            if (count == requested.size()) {
+                deleted = requested;
+            } else if (count > 0) {
+                // the single UPDATE does not say which ids matched; the tombstones it just stamped do
+                deleted = new HashSet<>(employeeRepository.findIdsDeletedAt(requested, now));
+            }
+        }
+        deleted.forEach(id -> publish(EmployeeChangedEvent.Type.DELETED, id, null));
+
+        List<EmployeeBulkResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(new EmployeeBulkResult(id, null, deleted.contains(id) ? DELETED : NOT_FOUND));
+        }
+        return results;
+    }
+
+    private void publish(EmployeeChangedEvent.Type type, Long id, Employee employee) {
+        eventPublisher.publishEvent(new EmployeeChangedEvent(type, id, employee));
+    }
+
+    /**
+     * Emails already stored, looked up with one IN query. MySQL compares them case-insensitively, so they are
+     * normalized to lower case; the returned set is mutable so callers can also catch duplicates within the batch.
+     */
+    private Set<String> findTakenEmails(List<String> emails) {
+        Set<String> taken = new HashSet<>();
+        if (!emails.isEmpty()) {
+            employeeRepository.findExistingEmails(emails).forEach(email -> taken.add(normalize(email)));
+        }
+        return taken;
+    }
+
+    /**
+     * Turns free text into a boolean-mode query that requires every word as a prefix, so "jo smi" finds
+     * "John Smith". Splitting on anything but letters and digits also drops the boolean-mode operators.
+     * InnoDB never indexes its stopwords, so requiring one ("com" in "acme.com") would match nothing; those
+     * words are left optional instead.
+     */
+    static String toPrefixTerms(String query) {
+        StringJoiner terms = new StringJoiner(" ");
+        for (String word : query.split("[^\\p{L}\\p{N}_]+")) {
+            if (!word.isEmpty()) {
+                terms.add((INNODB_STOPWORDS.contains(word.toLowerCase(Locale.ROOT)) ? "" : "+") + word + "*");
+            }
+        }
+        return terms.toString();
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName() != null ? violation.getConstraintName() : violation.getMessage();
+                return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_INDEX);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The email is nullable in the table only so tombstones can release theirs; every live employee has one.
+     */
+    private static void requireEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new InvalidResourceException("Employee email must not be blank");
+        }
+    }
+
+    private static boolean isComplete(Employee employee) {
+        return employee.getEmail() != null && !employee.getEmail().isBlank()
+                && employee.getFirstName() != null && employee.getLastName() != null;
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
 
 }
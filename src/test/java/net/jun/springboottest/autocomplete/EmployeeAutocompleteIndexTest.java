@@ -0,0 +1,147 @@
+package net.jun.springboottest.autocomplete;
+
+import net.jun.springboottest.dto.EmployeeSuggestion;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeAutocompleteIndexTest {
+
+    @Mock
+    private EmployeeService employeeService;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeAutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        autocompleteIndex = new EmployeeAutocompleteIndex(employeeService, employeeRepository, transactionManager);
+        willAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(0);
+            action.accept(employee(1L, "John", "Doe", "john@example.com"));
+            action.accept(employee(2L, "Joan", "Smith", "joan@example.com"));
+            return null;
+        }).given(employeeService).forEachEmployee(any());
+        autocompleteIndex.warmUp();
+    }
+
+    @Test
+    void givenWarmIndex_whenSuggest_thenMatchNamesAndEmailsByPrefix() {
+        //when
+        List<EmployeeSuggestion> suggestions = autocompleteIndex.suggest(" Jo ", 10);
+
+        //then
+        assertThat(suggestions).containsExactly(
+                new EmployeeSuggestion(2L, "joan"),
+                new EmployeeSuggestion(1L, "john"));
+    }
+
+    @Test
+    void givenCreatedAndUpdatedEvents_whenSuggest_thenFollowWrittenState() {
+        //given
+        autocompleteIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.CREATED, 3L,
+                employee(3L, "Jody", "Kim", "jody@example.com")));
+        autocompleteIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L,
+                employee(1L, "Jack", "Doe", "jack@example.com")));
+
+        //when
+        List<EmployeeSuggestion> suggestions = autocompleteIndex.suggest("jo", 10);
+
+        //then
+        assertThat(suggestions).containsExactly(
+                new EmployeeSuggestion(2L, "joan"),
+                new EmployeeSuggestion(3L, "jody"));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void givenPatchEventWithoutEmployee_whenOnEmployeeChanged_thenReloadRowInItsOwnTransaction() {
+        //given
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        given(employeeRepository.findById(2L)).willReturn(Optional.of(employee(2L, "Joanna", "Smith", "joan@example.com")));
+
+        //when
+        autocompleteIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 2L, null));
+
+        //then
+        assertThat(autocompleteIndex.suggest("joanna", 10)).containsExactly(new EmployeeSuggestion(2L, "joanna"));
+        assertThat(autocompleteIndex.suggest("smith", 10)).containsExactly(new EmployeeSuggestion(2L, "smith"));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void givenPatchedRowGoneBeforeReload_whenOnEmployeeChanged_thenRemoveIt() {
+        //given
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+
+        //when
+        autocompleteIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 2L, null));
+
+        //then
+        assertThat(autocompleteIndex.suggest("jo", 10)).containsExactly(new EmployeeSuggestion(1L, "john"));
+    }
+
+    @Test
+    void givenDeletedEvent_whenSuggest_thenSkipEmployee() {
+        //given
+        autocompleteIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 1L, null));
+
+        //when
+        List<EmployeeSuggestion> suggestions = autocompleteIndex.suggest("jo", 10);
+
+        //then
+        assertThat(suggestions).containsExactly(new EmployeeSuggestion(2L, "joan"));
+    }
+
+    @Test
+    void givenEmployeeWithoutEmail_whenOnEmployeeChanged_thenIndexRemainingTerms() {
+        //given
+        autocompleteIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.CREATED, 3L,
+                employee(3L, "Jody", null, null)));
+
+        //when
+        List<EmployeeSuggestion> suggestions = autocompleteIndex.suggest("jod", 10);
+
+        //then
+        assertThat(suggestions).containsExactly(new EmployeeSuggestion(3L, "jody"));
+    }
+
+    @Test
+    void givenBlankPrefix_whenSuggest_thenReturnNothing() {
+        //when
+        List<EmployeeSuggestion> suggestions = autocompleteIndex.suggest("  ", 10);
+
+        //then
+        assertThat(suggestions).isEmpty();
+    }
+
+    private static Employee employee(Long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .version(0L)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
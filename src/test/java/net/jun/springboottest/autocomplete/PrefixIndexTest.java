@@ -0,0 +1,93 @@
+package net.jun.springboottest.autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    @Test
+    void givenSnapshotAndOverlay_whenSearch_thenMergeInTermOrder() {
+        //given
+        PrefixIndex index = new PrefixIndex();
+        index.replaceSnapshot(PrefixIndex.builder()
+                .add(1L, List.of("john", "doe"))
+                .add(2L, List.of("joan", "smith")));
+        index.put(3L, List.of("johanna", "jones"));
+
+        //when
+        List<PrefixIndex.Match> matches = index.search("Jo", 10);
+
+        //then
+        assertThat(matches).containsExactly(
+                new PrefixIndex.Match(2L, "joan"),
+                new PrefixIndex.Match(3L, "johanna"),
+                new PrefixIndex.Match(1L, "john"));
+    }
+
+    @Test
+    void givenUpdatedAndRemovedIds_whenSearch_thenHideTheirSnapshotTerms() {
+        //given
+        PrefixIndex index = new PrefixIndex();
+        index.replaceSnapshot(PrefixIndex.builder()
+                .add(1L, List.of("john"))
+                .add(2L, List.of("joan")));
+        index.put(1L, List.of("jack"));
+        index.remove(2L);
+
+        //when
+        List<PrefixIndex.Match> matches = index.search("j", 10);
+
+        //then
+        assertThat(matches).containsExactly(new PrefixIndex.Match(1L, "jack"));
+    }
+
+    @Test
+    void givenSeveralTermsPerId_whenSearch_thenReturnOneMatchPerIdUpToLimit() {
+        //given
+        PrefixIndex index = new PrefixIndex();
+        index.replaceSnapshot(PrefixIndex.builder()
+                .add(1L, List.of("jo@example.com", "john"))
+                .add(2L, List.of("joan"))
+                .add(3L, List.of("jody")));
+
+        //when
+        List<PrefixIndex.Match> matches = index.search("jo", 2);
+
+        //then
+        assertThat(matches).containsExactly(
+                new PrefixIndex.Match(1L, "jo@example.com"),
+                new PrefixIndex.Match(2L, "joan"));
+    }
+
+    @Test
+    void givenWritesDuringCompaction_whenCompactionFinishes_thenKeepOnlyWritesItHasNotSeen() {
+        //given
+        List<Runnable> compactions = new ArrayList<>();
+        PrefixIndex index = new PrefixIndex(compactions::add, 4);
+        index.replaceSnapshot(PrefixIndex.builder()
+                .add(1L, List.of("john"))
+                .add(2L, List.of("joan")));
+        index.put(1L, List.of("jack"));
+        index.put(3L, List.of("jody"));
+        index.put(3L, List.of("josh"));
+        // the compaction now waits on the executor while the index goes on changing
+        index.put(4L, List.of("jill"));
+        index.remove(2L);
+        index.put(3L, List.of("judy"));
+
+        //when
+        assertThat(compactions).hasSize(1);
+        compactions.get(0).run();
+
+        //then
+        assertThat(index.search("j", 10)).containsExactly(
+                new PrefixIndex.Match(1L, "jack"),
+                new PrefixIndex.Match(4L, "jill"),
+                new PrefixIndex.Match(3L, "judy"));
+        assertThat(index.size()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,125 @@
+package net.jun.springboottest.batch;
+
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeBatchLoaderTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ConcurrentMapCache cache;
+    private EmployeeBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCache("employees");
+        loader = new EmployeeBatchLoader(employeeService, cache,
+                new BatchLoaderProperties(true, Duration.ofMillis(50), 500, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.close();
+    }
+
+    @Test
+    void givenLookupsInOneWindow_whenLoad_thenResolveWithOneQuery() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("test@gmail.com").build();
+        given(employeeService.getEmployeesByIds(List.of(1L, 2L)))
+                .willReturn(new EmployeeBatch(List.of(employee), List.of(2L)));
+
+        //when
+        CompletableFuture<Optional<Employee>> first = loader.load(1L);
+        CompletableFuture<Optional<Employee>> missing = loader.load(2L);
+        CompletableFuture<Optional<Employee>> again = loader.load(1L);
+
+        //then
+        assertThat(first.join()).contains(employee);
+        assertThat(missing.join()).isEmpty();
+        assertThat(again.join()).contains(employee);
+        verify(employeeService, times(1)).getEmployeesByIds(anyList());
+        assertThat(cache.get(1L, Employee.class)).isSameAs(employee);
+    }
+
+    @Test
+    void givenCachedEmployee_whenLoad_thenAnswerWithoutQuery() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("test@gmail.com").build();
+        cache.put(1L, employee);
+
+        //when
+        Optional<Employee> loaded = loader.load(1L).join();
+
+        //then
+        assertThat(loaded).contains(employee);
+        verify(employeeService, never()).getEmployeesByIds(anyList());
+    }
+
+    @Test
+    void givenEmployeeCachedByAWriteDuringTheBatch_whenLoad_thenKeepTheCachedEmployee() {
+        //given
+        Employee stale = Employee.builder().id(1L).firstName("John").lastName("Doe").email("test@gmail.com").version(0L).build();
+        Employee updated = Employee.builder().id(1L).firstName("Jane").lastName("Doe").email("test@gmail.com").version(1L).build();
+        given(employeeService.getEmployeesByIds(List.of(1L))).willAnswer(invocation -> {
+            cache.put(1L, updated);
+            return new EmployeeBatch(List.of(stale), List.of());
+        });
+
+        //when
+        Optional<Employee> loaded = loader.load(1L).join();
+
+        //then
+        assertThat(loaded).contains(updated);
+        assertThat(cache.get(1L, Employee.class)).isSameAs(updated);
+    }
+
+    @Test
+    void givenPendingLookup_whenClose_thenAnswerIt() {
+        //given
+        Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("test@gmail.com").build();
+        given(employeeService.getEmployeesByIds(List.of(1L)))
+                .willReturn(new EmployeeBatch(List.of(employee), List.of()));
+        CompletableFuture<Optional<Employee>> pending = loader.load(1L);
+
+        //when
+        loader.close();
+
+        //then
+        assertThat(pending).isCompletedWithValue(Optional.of(employee));
+    }
+
+    @Test
+    void givenClosedLoader_whenLoad_thenRejectWithoutQuery() {
+        //given
+        loader.close();
+
+        //when
+        CompletableFuture<Optional<Employee>> rejected = loader.load(1L);
+
+        //then
+        assertThat(rejected).failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+        verify(employeeService, never()).getEmployeesByIds(anyList());
+    }
+}
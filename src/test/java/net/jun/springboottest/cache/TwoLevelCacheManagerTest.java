@@ -0,0 +1,142 @@
+package net.jun.springboottest.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheOperation;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CachePutOperation;
+import org.springframework.cache.interceptor.CacheableOperation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheManagerTest {
+
+    private SharedCacheStore shared;
+    private final List<CacheInvalidation> invalidations = new ArrayList<>();
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        shared = new InMemorySharedCacheStore();
+        CacheInvalidationBus bus = new InProcessCacheInvalidationBus();
+        bus.subscribe(invalidations::add);
+        nodeA = node("a", shared, bus);
+        nodeB = node("b", shared, bus);
+    }
+
+    @Test
+    void givenEntryCachedOnOneNode_whenReadOnAnother_thenServeFromSharedTier() {
+        //given
+        nodeA.getCache("employees").put(1L, "John");
+
+        //when
+        Cache.ValueWrapper value = nodeB.getCache("employees").get(1L);
+
+        //then
+        assertThat(value).isNotNull();
+        assertThat(value.get()).isEqualTo("John");
+    }
+
+    @Test
+    void givenNearCopyOnOtherNode_whenUpdated_thenOtherNodeReadsNewValue() {
+        //given
+        nodeA.getCache("employees").put(1L, "John");
+        nodeB.getCache("employees").get(1L);
+
+        //when
+        nodeA.getCache("employees").put(1L, "Jane");
+
+        //then
+        assertThat(nodeB.getCache("employees").get(1L).get()).isEqualTo("Jane");
+    }
+
+    @Test
+    void givenNearCopyOnOtherNode_whenEvicted_thenOtherNodeMisses() {
+        //given
+        nodeA.getCache("employees").put(1L, "John");
+        nodeB.getCache("employees").get(1L);
+
+        //when
+        nodeA.getCache("employees").evict(1L);
+
+        //then
+        assertThat(nodeB.getCache("employees").get(1L)).isNull();
+    }
+
+    @Test
+    void givenStaleReadOnOneNode_whenFilledAfterWriteOnAnother_thenKeepWrittenValue() {
+        //given
+        Cache.ValueWrapper miss = nodeB.getCache("employees").get(1L);
+        String staleRow = "John";
+        nodeA.getCache("employees").put(1L, "Jane");
+
+        //when
+        nodeB.getFillingCache("employees").put(1L, staleRow);
+
+        //then
+        assertThat(miss).isNull();
+        assertThat(shared.get("employees", 1L)).isEqualTo("Jane");
+        assertThat(nodeA.getCache("employees").get(1L).get()).isEqualTo("Jane");
+        assertThat(nodeB.getCache("employees").get(1L).get()).isEqualTo("Jane");
+    }
+
+    @Test
+    void givenNearCopyOnOtherNode_whenFilled_thenSendNoInvalidation() {
+        //given
+        nodeA.getCache("employees").put(1L, "John");
+        nodeB.getCache("employees").get(1L);
+        invalidations.clear();
+
+        //when
+        nodeA.getFillingCache("employees").put(2L, "Jane");
+
+        //then
+        assertThat(invalidations).isEmpty();
+        assertThat(nodeB.getCache("employees").get(1L).get()).isEqualTo("John");
+        assertThat(nodeB.getCache("employees").get(2L).get()).isEqualTo("Jane");
+    }
+
+    @Test
+    void givenCacheableAndCachePutOperations_whenResolveCaches_thenOnlyCachePutOverwrites() {
+        //given
+        TwoLevelCacheResolver resolver = new TwoLevelCacheResolver(nodeA);
+        nodeA.getCache("employees").put(1L, "Jane");
+        CacheableOperation cacheable = new CacheableOperation.Builder() {{
+            setCacheName("employees");
+        }}.build();
+        CachePutOperation cachePut = new CachePutOperation.Builder() {{
+            setCacheName("employees");
+        }}.build();
+
+        //when
+        resolver.resolveCaches(context(cacheable)).forEach(cache -> cache.put(1L, "John"));
+        Cache.ValueWrapper afterFill = nodeB.getCache("employees").get(1L);
+        resolver.resolveCaches(context(cachePut)).forEach(cache -> cache.put(1L, "John"));
+
+        //then
+        assertThat(afterFill.get()).isEqualTo("Jane");
+        assertThat(nodeB.getCache("employees").get(1L).get()).isEqualTo("John");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CacheOperationInvocationContext<CacheOperation> context(CacheOperation operation) {
+        CacheOperationInvocationContext<CacheOperation> context = mock(CacheOperationInvocationContext.class);
+        given(context.getOperation()).willReturn(operation);
+        return context;
+    }
+
+    private static TwoLevelCacheManager node(String nodeId, SharedCacheStore shared, CacheInvalidationBus bus) {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(nodeId, "maximumSize=100", shared, bus,
+                Duration.ofMinutes(1), List.of("employees"));
+        manager.afterPropertiesSet();
+        return manager;
+    }
+}
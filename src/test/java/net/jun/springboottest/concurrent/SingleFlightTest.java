@@ -0,0 +1,83 @@
+package net.jun.springboottest.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> flight = new SingleFlight<>();
+
+    @Test
+    void givenCallInFlight_whenSameKeyRequested_thenShareItsResult() throws InterruptedException {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.execute(1L, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "John";
+        }));
+        started.await();
+
+        //when
+        List<CompletableFuture<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            followers.add(CompletableFuture.supplyAsync(() -> flight.execute(1L, () -> {
+                calls.incrementAndGet();
+                return "Jane";
+            })));
+        }
+        while (flight.getJoined() < 5) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        //then
+        assertThat(leader.join()).isEqualTo("John");
+        followers.forEach(follower -> assertThat(follower.join()).isEqualTo("John"));
+        assertThat(calls).hasValue(1);
+        assertThat(flight.getExecuted()).isEqualTo(1);
+    }
+
+    @Test
+    void givenFinishedCall_whenSameKeyRequested_thenCallAgain() {
+        //given
+        flight.execute(1L, () -> "John");
+
+        //when
+        String value = flight.execute(1L, () -> "Jane");
+
+        //then
+        assertThat(value).isEqualTo("Jane");
+        assertThat(flight.getJoined()).isZero();
+    }
+
+    @Test
+    void givenFailingCall_whenExecute_thenThrowAndForgetTheKey() {
+        //when
+        assertThatThrownBy(() -> flight.execute(1L, () -> {
+            throw new IllegalStateException("database down");
+        }))
+                //then
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(flight.execute(1L, () -> "John")).isEqualTo("John");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
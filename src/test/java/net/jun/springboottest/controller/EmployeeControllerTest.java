@@ -1,6 +1,23 @@
 package net.jun.springboottest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import net.jun.springboottest.autocomplete.EmployeeAutocompleteIndex;
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeChangeBatch;
+import net.jun.springboottest.dto.EmployeeCollectionVersion;
+import net.jun.springboottest.dto.EmployeeContact;
+import net.jun.springboottest.dto.EmployeeIngestStatus;
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.dto.EmployeeSuggestion;
+import net.jun.springboottest.exception.InvalidResourceException;
+import net.jun.springboottest.exception.ResourceAlreadyExistsException;
+import net.jun.springboottest.exception.WatermarkExpiredException;
+import net.jun.springboottest.ingest.EmployeeWriteBehindQueue;
 import net.jun.springboottest.model.Employee;
 import net.jun.springboottest.service.EmployeeService;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,22 +25,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
@@ -35,6 +69,12 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeAutocompleteIndex autocompleteIndex;
+
+    @MockBean
+    private EmployeeWriteBehindQueue writeBehindQueue;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -68,20 +108,159 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @Test
+    void givenRespondAsync_whenCreateEmployee_thenQueueAndReturnAccepted() throws Exception {
+        //given
+        UUID trackingId = UUID.randomUUID();
+        given(writeBehindQueue.submit(any(Employee.class)))
+                .willReturn(Optional.of(new EmployeeIngestStatus(trackingId, EmployeeIngestStatus.State.QUEUED, null)));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "respond-async")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/employees/ingest/" + trackingId))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    void givenRespondAsyncAmongOtherPreferences_whenCreateEmployee_thenQueueAndReturnAccepted() throws Exception {
+        //given
+        UUID trackingId = UUID.randomUUID();
+        given(writeBehindQueue.submit(any(Employee.class)))
+                .willReturn(Optional.of(new EmployeeIngestStatus(trackingId, EmployeeIngestStatus.State.QUEUED, null)));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "return=minimal, Respond-Async; wait=10")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"));
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    @Test
+    void givenOtherPreferenceOnly_whenCreateEmployee_thenCreateSynchronously() throws Exception {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArgument(0));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "wait=10")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        verify(writeBehindQueue, never()).submit(any(Employee.class));
+    }
+
+    @Test
+    void givenFullQueue_whenCreateEmployeeAsync_thenReturnTooManyRequests() throws Exception {
+        //given
+        given(writeBehindQueue.submit(any(Employee.class))).willReturn(Optional.empty());
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header("Prefer", "respond-async")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        //given
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceAlreadyExistsException("Employee already exists with email: " + employee.getEmail()));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void givenBlankEmail_whenCreateEmployee_thenReturn400Status() throws Exception {
+        //given
+        employee.setEmail("");
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new InvalidResourceException("Employee email must not be blank"));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void givenEmployeeList_whenCreateEmployeesInBulk_thenReturnResultPerRow() throws Exception {
+        //given
+        Employee employee2 = Employee.builder()
+                .firstName("Kong")
+                .lastName("Dosh")
+                .email("KongDosh@gmail.com")
+                .build();
+        given(employeeService.saveEmployees(anyList())).willReturn(List.of(
+                new EmployeeBulkResult(1L, employee.getEmail(), EmployeeBulkResult.Status.CREATED),
+                new EmployeeBulkResult(null, employee2.getEmail(), EmployeeBulkResult.Status.DUPLICATE)));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/bulk")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, employee2))));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE")));
+    }
+
     @Test
     void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeeList() throws Exception {
         //given
         Employee employee = Employee.builder()
+                .id(1L)
+                .version(0L)
                 .firstName("John")
                 .lastName("Doe")
                 .email("JohnDoe@gmail.com")
                 .build();
 
         Employee employee2 = Employee.builder()
+                .id(2L)
+                .version(3L)
                 .firstName("Kong")
                 .lastName("Dosh")
                 .email("KongDosh@gmail.com")
                 .build();
+        given(employeeService.getCollectionVersion()).willReturn(new EmployeeCollectionVersion(2, 2, 3, null));
         given(employeeService.getAllEmployees()).willReturn(List.of(employee, employee2));
 
         //when
@@ -97,7 +276,357 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$[0].email", is(employee.getEmail())))
                 .andExpect(jsonPath("$[1].firstName", is(employee2.getFirstName())))
                 .andExpect(jsonPath("$[1].lastName", is(employee2.getLastName())))
-                .andExpect(jsonPath("$[1].email", is(employee2.getEmail())));
+                .andExpect(jsonPath("$[1].email", is(employee2.getEmail())))
+                .andExpect(header().string("ETag", "\"2-2-3-0\""));
+    }
+
+    @Test
+    void givenAggregateReadBeforeAWrite_whenGetAllEmployee_thenETagDescribesReturnedRows() throws Exception {
+        //given the aggregate still sees one employee, the list already sees the new one
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .version(0L)
+                .firstName("Kong")
+                .lastName("Dosh")
+                .email("KongDosh@gmail.com")
+                .build();
+        given(employeeService.getCollectionVersion()).willReturn(new EmployeeCollectionVersion(1, 1, 0, null));
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee, employee2));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(header().string("ETag", "\"2-2-0-0\""));
+    }
+
+    @Test
+    void givenUnchangedCollection_whenGetAllEmployeeWithIfNoneMatch_thenReturn304WithoutLoadingRows() throws Exception {
+        //given
+        given(employeeService.getCollectionVersion()).willReturn(new EmployeeCollectionVersion(2, 2, 0, null));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .header("If-None-Match", "\"2-2-0-0\"")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotModified());
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    void givenRowReplacedBelowTheHighestId_whenGetAllEmployeeWithIfNoneMatch_thenReturnTheNewRows() throws Exception {
+        //given a delete and an insert from a lower id block left count, highest id and version sum alone
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .version(0L)
+                .firstName("Kong")
+                .lastName("Dosh")
+                .email("KongDosh@gmail.com")
+                .updatedAt(Instant.ofEpochSecond(2, 5_000))
+                .build();
+        given(employeeService.getCollectionVersion())
+                .willReturn(new EmployeeCollectionVersion(2, 2, 0, Instant.ofEpochSecond(2, 5_000)));
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee, employee2));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .header("If-None-Match", "\"2-2-0-1000000\"")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(header().string("ETag", "\"2-2-0-2000005\""));
+    }
+
+    @Test
+    void givenAcceptGzip_whenStreamAllEmployees_thenWriteGzippedJsonFromService() throws Exception {
+        //given
+        given(employeeService.getCollectionVersion()).willReturn(new EmployeeCollectionVersion(0, 0, 0, null));
+        willAnswer(invocation -> {
+            JsonGenerator generator = invocation.getArgument(0);
+            generator.writeStartArray();
+            generator.writeEndArray();
+            return null;
+        }).given(employeeService).writeEmployeesAsJson(any(JsonGenerator.class));
+
+        //when
+        MvcResult started = mockMvc.perform(get("/api/employees")
+                        .param("stream", "true")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", "\"0-0-0-0-gzip\""));
+        byte[] body = response.andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(json.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("[]");
+        }
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenAcceptSmileStream_whenStreamEmployees_thenWriteSmileValuesBackToBack() throws Exception {
+        //given
+        List<Employee> employees = List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Doe").email("JohnDoe@gmail.com").build(),
+                Employee.builder().id(2L).firstName("Kong").lastName("Dosh").email("KongDosh@gmail.com").build());
+        willAnswer(invocation -> {
+            employees.forEach(invocation.<Consumer<Employee>>getArgument(0));
+            return null;
+        }).given(employeeService).forEachEmployee(any(Consumer.class));
+
+        //when
+        MvcResult started = mockMvc.perform(get("/api/employees/stream")
+                        .header("Accept", "application/stream+x-jackson-smile"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(started));
+
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/stream+x-jackson-smile"));
+        byte[] body = response.andReturn().getResponse().getContentAsByteArray();
+        ObjectMapper smile = new SmileMapper().findAndRegisterModules();
+        try (MappingIterator<Employee> values = smile.readerFor(Employee.class).readValues(body)) {
+            assertThat(values.readAll()).extracting(Employee::getId).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    void givenMoreEmployeesThanPageSize_whenGetEmployeePage_thenReturnPageWithNextCursor() throws Exception {
+        //given
+        List<Employee> employees = List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Doe").email("JohnDoe@gmail.com").build(),
+                Employee.builder().id(2L).firstName("Kong").lastName("Dosh").email("KongDosh@gmail.com").build(),
+                Employee.builder().id(3L).firstName("Kim").lastName("Sejun").email("KimSejun@gmail.com").build());
+        given(employeeService.getEmployeesAfter(0L, 3)).willReturn(employees);
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/page")
+                .param("size", "2")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", is(2)))
+                .andExpect(jsonPath("$.employees[1].email", is("KongDosh@gmail.com")))
+                .andExpect(jsonPath("$.nextCursor", is("Mg")));
+    }
+
+    @Test
+    void givenChangedEmployees_whenGetChanges_thenReturnChangesWithWatermarkOfLastRow() throws Exception {
+        //given
+        Instant updatedAt = Instant.parse("2024-01-02T03:04:05.123456Z");
+        List<Employee> changes = List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Doe").email("JohnDoe@gmail.com")
+                        .updatedAt(updatedAt).build(),
+                Employee.builder().id(2L).firstName("Kong").lastName("Dosh").deleted(true)
+                        .updatedAt(updatedAt).build());
+        given(employeeService.getChangesSince(Instant.EPOCH, 0L, 2))
+                .willReturn(new EmployeeChangeBatch(changes, updatedAt.plusSeconds(60)));
+        String watermark = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((updatedAt + ",2").getBytes(StandardCharsets.US_ASCII));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .param("size", "2")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", is(2)))
+                .andExpect(jsonPath("$.employees[1].deleted", is(true)))
+                .andExpect(jsonPath("$.watermark", is(watermark)));
+    }
+
+    @Test
+    void givenShortPage_whenGetChanges_thenMoveWatermarkUpToTheReadInstant() throws Exception {
+        //given
+        Instant since = Instant.parse("2024-01-02T03:04:05.123456Z");
+        Instant until = Instant.parse("2024-01-03T00:00:00.000001Z");
+        given(employeeService.getChangesSince(since, 5L, 1000)).willReturn(new EmployeeChangeBatch(List.of(), until));
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .param("since", base64.encodeToString((since + ",5").getBytes(StandardCharsets.US_ASCII)))
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", is(0)))
+                .andExpect(jsonPath("$.watermark",
+                        is(base64.encodeToString((until + ",0").getBytes(StandardCharsets.US_ASCII)))));
+    }
+
+    @Test
+    void givenMalformedWatermark_whenGetChanges_thenReturn400Status() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .param("since", "not-a-watermark")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void givenExpiredWatermark_whenGetChanges_thenReturn410Status() throws Exception {
+        //given
+        Instant since = Instant.parse("2020-01-01T00:00:00Z");
+        given(employeeService.getChangesSince(since, 5L, 1000))
+                .willThrow(new WatermarkExpiredException("Watermark " + since + " is older than the tombstone retention"));
+        String watermark = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((since + ",5").getBytes(StandardCharsets.US_ASCII));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .param("since", watermark)
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void givenIds_whenGetEmployeesByIds_thenReturnEmployeesAndMissingIds() throws Exception {
+        //given
+        employee.setId(2L);
+        given(employeeService.getEmployeesByIds(List.of(2L, 3L)))
+                .willReturn(new EmployeeBatch(List.of(employee), List.of(3L)));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("ids", "2,3")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees.size()", is(1)))
+                .andExpect(jsonPath("$.employees[0].id", is(2)))
+                .andExpect(jsonPath("$.missing[0]", is(3)));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    void givenFirstAndLastName_whenGetEmployeesByName_thenReturnMatchingEmployees() throws Exception {
+        //given
+        given(employeeService.getEmployeesByName("John", "Doe")).willReturn(List.of(employee));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/by-name")
+                .param("firstName", "John")
+                .param("lastName", "Doe")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].firstName", is("John")))
+                .andExpect(jsonPath("$[0].lastName", is("Doe")))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    }
+
+    @Test
+    void givenFirstAndLastName_whenGetEmployeeContactsByName_thenReturnOnlyIdAndEmail() throws Exception {
+        //given
+        EmployeeContact contact = new EmployeeContact() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public String getEmail() {
+                return "JohnDoe@gmail.com";
+            }
+        };
+        given(employeeService.getEmployeeContactsByName("John", "Doe")).willReturn(List.of(contact));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/by-name/contacts")
+                .param("firstName", "John")
+                .param("lastName", "Doe")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].email", is("JohnDoe@gmail.com")))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist());
+    }
+
+    @Test
+    void givenMissingLastName_whenGetEmployeesByName_thenReturn400Status() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/by-name")
+                .param("firstName", "John")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesByName(any(), any());
+    }
+
+    @Test
+    void givenSearchText_whenSearchEmployees_thenReturnMatchesWithClampedLimit() throws Exception {
+        //given
+        given(employeeService.searchEmployees("jo", 50)).willReturn(List.of(employee));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "jo")
+                .param("limit", "500")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    }
+
+    @Test
+    void givenPrefix_whenAutocomplete_thenReturnSuggestions() throws Exception {
+        //given
+        given(autocompleteIndex.suggest("jo", 10))
+                .willReturn(List.of(new EmployeeSuggestion(1L, "john"), new EmployeeSuggestion(2L, "johndoe@gmail.com")));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/autocomplete")
+                .param("prefix", "jo")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].match", is("john")));
     }
 
     @Test
@@ -117,6 +646,43 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @Test
+    void givenAcceptCbor_whenGetEmployeeByID_thenReturnCborEmployee() throws Exception {
+        //given
+        employee.setId(1L);
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", 1L)
+                .accept(APPLICATION_CBOR));
+
+        //then
+        response.andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", APPLICATION_CBOR.toString()));
+        byte[] body = response.andReturn().getResponse().getContentAsByteArray();
+        Employee decoded = new CBORMapper().findAndRegisterModules().readValue(body, Employee.class);
+        assertThat(decoded.getId()).isEqualTo(1L);
+        assertThat(decoded.getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenMatchingETag_whenGetEmployeeByID_thenReturn304() throws Exception {
+        //given
+        employee.setId(1L);
+        employee.setVersion(3L);
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", 1L)
+                .header("If-None-Match", "\"3\"")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
     @Test
     void givenEmployeeObject_whenGetEmployeeByID_thenNotFoundEmployeeObject() throws Exception {
         //given
@@ -136,6 +702,8 @@ class EmployeeControllerTest {
         //given
         long employeeId = 1L;
         Employee savedEmployee = Employee.builder()
+                .id(employeeId)
+                .version(0L)
                 .firstName("John")
                 .lastName("Doe")
                 .email("John@Gmail.com")
@@ -147,8 +715,14 @@ class EmployeeControllerTest {
                 .email("John@Gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-        given(employeeService.updateEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArguments()[0]);
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull())).willReturn(Optional.of(
+                Employee.builder()
+                        .id(employeeId)
+                        .version(savedEmployee.getVersion() + 1)
+                        .firstName(updatedEmployee.getFirstName())
+                        .lastName(updatedEmployee.getLastName())
+                        .email(updatedEmployee.getEmail())
+                        .build()));
 
         //when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -160,7 +734,26 @@ class EmployeeControllerTest {
                 .andDo(print())
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
-                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
+                .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())))
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    void givenStaleIfMatch_whenUpdateEmployeeObject_thenReturn412Status() throws Exception {
+        //given
+        long employeeId = 1L;
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), eq(1L)))
+                .willThrow(new OptimisticLockingFailureException("Employee 1 is no longer at version 1"));
+
+        //when
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header("If-Match", "\"1\"")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
@@ -168,6 +761,8 @@ class EmployeeControllerTest {
         //given
         long employeeId = 1L;
         Employee savedEmployee = Employee.builder()
+                .id(employeeId)
+                .version(0L)
                 .firstName("John")
                 .lastName("Doe")
                 .email("John@Gmail.com")
@@ -179,8 +774,7 @@ class EmployeeControllerTest {
                 .email("John@Gmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-        given(employeeService.updateEmployee(any(Employee.class))).willAnswer((invocation) -> invocation.getArguments()[0]);
+        given(employeeService.updateEmployee(eq(employeeId), any(Employee.class), isNull())).willReturn(Optional.empty());
 
         //when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -193,15 +787,41 @@ class EmployeeControllerTest {
     }
 
     @Test
-    void givenEmployeeObject_whenDeleteEmployeeObject_thenReturn200Status() throws Exception {
+    void givenEmployeePatch_whenPatchEmployee_thenReturn204Status() throws Exception {
         //given
-        Employee savedEmployee = Employee.builder()
-                .firstName("John")
-                .lastName("Doe")
-                .email("John@Gmail.com")
-                .build();
-        given(employeeService.getEmployeeById(anyLong())).willReturn(Optional.of(savedEmployee));
-        willDoNothing().given(employeeService).deleteEmployee(anyLong());
+        EmployeePatch patch = new EmployeePatch("UpdatedJohn", null, null, null);
+        given(employeeService.patchEmployee(anyLong(), any(EmployeePatch.class))).willReturn(true);
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L)
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void givenUnknownEmployee_whenPatchEmployee_thenReturn404Status() throws Exception {
+        //given
+        EmployeePatch patch = new EmployeePatch("UpdatedJohn", null, null, null);
+        given(employeeService.patchEmployee(anyLong(), any(EmployeePatch.class))).willReturn(false);
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L)
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void givenEmployeeId_whenDeleteEmployee_thenReturnDeletedEmployee() throws Exception {
+        //given
+        given(employeeService.deleteEmployeeReturning(anyLong(), isNull())).willReturn(Optional.of(employee));
 
         //when
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L)
@@ -209,7 +829,92 @@ class EmployeeControllerTest {
 
         //then
         response.andDo(print())
-                .andExpect(status().isOk());
-        verify(employeeService).deleteEmployee(anyLong());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        verify(employeeService, never()).deleteEmployee(anyLong(), any());
+    }
+
+    @Test
+    void givenUnknownEmployee_whenDeleteEmployee_thenReturn404Status() throws Exception {
+        //given
+        given(employeeService.deleteEmployeeReturning(anyLong(), isNull())).willReturn(Optional.empty());
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L)
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void givenPreferReturnMinimal_whenDeleteEmployee_thenReturn204Status() throws Exception {
+        //given
+        given(employeeService.deleteEmployee(anyLong(), isNull())).willReturn(true);
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L)
+                .header("Prefer", "handling=lenient, return=minimal")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+        verify(employeeService).deleteEmployee(anyLong(), isNull());
+        verify(employeeService, never()).deleteEmployeeReturning(anyLong(), any());
+    }
+
+    @Test
+    void givenPreferReturnMinimalAndUnknownEmployee_whenDeleteEmployee_thenReturn404Status() throws Exception {
+        //given
+        given(employeeService.deleteEmployee(anyLong(), isNull())).willReturn(false);
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L)
+                .header("Prefer", "return=minimal")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void givenStaleIfMatch_whenDeleteEmployee_thenReturn412Status() throws Exception {
+        //given
+        given(employeeService.deleteEmployeeReturning(1L, 2L))
+                .willThrow(new OptimisticLockingFailureException("Employee 1 is no longer at version 2"));
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", 1L)
+                .header("If-Match", "\"2\"")
+                .contentType(APPLICATION_JSON));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void givenIdList_whenDeleteEmployeesInBulk_thenReturnResultPerId() throws Exception {
+        //given
+        given(employeeService.deleteEmployees(anyList())).willReturn(List.of(
+                new EmployeeBulkResult(1L, null, EmployeeBulkResult.Status.DELETED),
+                new EmployeeBulkResult(2L, null, EmployeeBulkResult.Status.NOT_FOUND)));
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/bulk")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(1L, 2L))));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].status", is("DELETED")))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package net.jun.springboottest.ingest;
+
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeIngestStatus;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeWriteBehindQueueTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("test@gmail.com")
+                .build();
+    }
+
+    @Test
+    void givenQueuedCreate_whenStop_thenDrainAndRecordOutcome() {
+        //given
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(new EmployeeBulkResult(7L, employee.getEmail(), EmployeeBulkResult.Status.CREATED)));
+        EmployeeWriteBehindQueue queue = queue(10);
+        queue.start();
+        EmployeeIngestStatus queued = queue.submit(employee).orElseThrow();
+
+        //when
+        queue.stop();
+
+        //then
+        assertThat(queue.getStatus(queued.trackingId()))
+                .contains(new EmployeeIngestStatus(queued.trackingId(), EmployeeIngestStatus.State.CREATED, 7L));
+        assertThat(queue.submit(employee)).isEmpty();
+    }
+
+    @Test
+    void givenFullQueue_whenSubmit_thenReject() throws InterruptedException {
+        //given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return List.of(new EmployeeBulkResult(1L, employee.getEmail(), EmployeeBulkResult.Status.CREATED));
+        });
+        EmployeeWriteBehindQueue queue = queue(1);
+        queue.start();
+        queue.submit(employee);
+        writing.await();
+        Optional<EmployeeIngestStatus> waiting = queue.submit(employee);
+
+        //when
+        Optional<EmployeeIngestStatus> rejected = queue.submit(employee);
+
+        //then
+        assertThat(waiting).isPresent();
+        assertThat(rejected).isEmpty();
+        release.countDown();
+        queue.stop();
+    }
+
+    private EmployeeWriteBehindQueue queue(int capacity) {
+        return new EmployeeWriteBehindQueue(employeeService,
+                new WriteBehindProperties(true, capacity, 100, Duration.ofSeconds(5), Duration.ofMinutes(1)));
+    }
+}
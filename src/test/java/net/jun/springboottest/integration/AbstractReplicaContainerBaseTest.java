@@ -0,0 +1,34 @@
+package net.jun.springboottest.integration;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * A second MySQL container standing in for a read replica. It does not replicate from the primary, so tests
+ * seed it directly and can tell from the data which server answered.
+ */
+public abstract class AbstractReplicaContainerBaseTest extends AbstractContainerBaseTest {
+
+    static final MySQLContainer REPLICA_CONTAINER;
+
+    static {
+        REPLICA_CONTAINER = new MySQLContainer("mysql:latest")
+                .withUsername("username")
+                .withPassword("password")
+                .withDatabaseName("ems");
+        // on the raw type withInitScript returns a JdbcDatabaseContainer, so it cannot end the chain above
+        REPLICA_CONTAINER.withInitScript("replica-schema.sql");
+        REPLICA_CONTAINER.start();
+    }
+
+    @DynamicPropertySource
+    public static void replicaPropertySource(DynamicPropertyRegistry registry) {
+        registry.add("app.datasource.routing.enabled", () -> "true");
+        registry.add("app.datasource.routing.replicas[0].url", REPLICA_CONTAINER::getJdbcUrl);
+        registry.add("app.datasource.routing.replicas[0].username", REPLICA_CONTAINER::getUsername);
+        registry.add("app.datasource.routing.replicas[0].password", REPLICA_CONTAINER::getPassword);
+        // the lag check is driven by the tests
+        registry.add("app.datasource.routing.lag-check-interval", () -> "1h");
+    }
+}
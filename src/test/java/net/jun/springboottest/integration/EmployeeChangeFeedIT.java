@@ -0,0 +1,67 @@
+package net.jun.springboottest.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The change feed with a tombstone retention short enough to outlast in a test.
+ */
+@SpringBootTest(properties = {
+        "app.employees.changes.tombstone-retention=2s",
+        "app.employees.changes.settle-time=0s"})
+@AutoConfigureMockMvc
+class EmployeeChangeFeedIT extends AbstractContainerBaseTest {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void givenCaughtUpClientOnQuietTable_whenPollingLongerThanTheRetention_thenWatermarkNeverExpires() throws Exception {
+        //given
+        String watermark = null;
+        List<?> page;
+        do {
+            String body = poll(watermark);
+            watermark = JsonPath.read(body, "$.watermark");
+            page = JsonPath.read(body, "$.employees");
+        } while (page.size() == PAGE_SIZE);
+
+        //when
+        Instant pollingUntil = Instant.now().plus(Duration.ofSeconds(3));
+        while (Instant.now().isBefore(pollingUntil)) {
+            Thread.sleep(500);
+            watermark = JsonPath.read(poll(watermark), "$.watermark");
+        }
+
+        //then
+        String since = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.US_ASCII).split(",")[0];
+        assertThat(Instant.parse(since)).isAfter(Instant.now().minus(Duration.ofSeconds(2)));
+    }
+
+    private String poll(String watermark) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/employees/changes").param("size", String.valueOf(PAGE_SIZE));
+        if (watermark != null) {
+            request.param("since", watermark);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -1,26 +1,34 @@
 package net.jun.springboottest.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import net.jun.springboottest.model.Employee;
 import net.jun.springboottest.repository.EmployeeRepository;
+import net.ttddyy.dsproxy.QueryCountHolder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
@@ -57,6 +65,8 @@ public class EmployeeControllerIT extends AbstractContainerBaseTest {
                 .andExpect(jsonPath("$.firstName", is("John")))
                 .andExpect(jsonPath("$.lastName", is("Doe")))
                 .andExpect(jsonPath("$.email", is("JohnDoe@gmail.com")));
+        // the INSERT, plus the id block fetch when the pooled sequence runs dry
+        assertStatementCountAtMost(3);
     }
 
     @Test
@@ -84,6 +94,43 @@ public class EmployeeControllerIT extends AbstractContainerBaseTest {
         response.andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()", is(2)));
+        // the ETag aggregate, then the rows
+        assertStatementCountAtMost(2);
+    }
+
+    @Test
+    void givenEmployees_whenStreamAllEmployees_thenWriteTheSameBytesAsTheList() throws Exception {
+        //given
+        employeeRepository.saveAll(List.of(
+                Employee.builder()
+                        .firstName("John")
+                        .lastName("Doe")
+                        .email("JohnDoe@gmail.com")
+                        .build(),
+                Employee.builder()
+                        .firstName("Zoë")
+                        .lastName("O'Brien \"Jr\"")
+                        .email("ZoeOBrien@gmail.com")
+                        .build()));
+
+        //when
+        byte[] list = mockMvc.perform(get("/api/employees")
+                        .accept(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        MvcResult started = mockMvc.perform(get("/api/employees")
+                        .param("stream", "true")
+                        .accept(APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] stream = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        //then
+        assertThat(new String(stream, StandardCharsets.UTF_8)).isEqualTo(new String(list, StandardCharsets.UTF_8));
+        assertThat(stream).isEqualTo(list);
+        assertThat(new String(list, StandardCharsets.UTF_8)).contains("\"firstName\":\"Zoë\"");
     }
 
     @Test
@@ -103,6 +150,7 @@ public class EmployeeControllerIT extends AbstractContainerBaseTest {
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        assertStatementCountAtMost(1);
     }
 
     @Test
@@ -115,4 +163,94 @@ public class EmployeeControllerIT extends AbstractContainerBaseTest {
         response.andDo(print())
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void givenEmployeeObject_whenDeleteEmployee_thenReturnDeletedEmployee() throws Exception {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("JohnDoe@gmail.com")
+                .build());
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employee.getId()));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        assertThat(employeeRepository.existsById(employee.getId())).isFalse();
+    }
+
+    @Test
+    void givenPreferReturnMinimal_whenDeleteEmployee_thenSingleDeleteStatement() throws Exception {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("JohnDoe@gmail.com")
+                .build());
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employee.getId())
+                .header("Prefer", "return=minimal"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNoContent());
+        assertStatementCountAtMost(1);
+        assertThat(employeeRepository.existsById(employee.getId())).isFalse();
+    }
+
+    @Test
+    void givenKnownAndUnknownIds_whenDeleteEmployeesInBulk_thenReturnStatusPerId() throws Exception {
+        //given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("JohnDoe@gmail.com")
+                .build());
+
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/bulk")
+                .contentType(APPLICATION_JSON)
+                .content("[" + employee.getId() + ", " + (employee.getId() + 1000) + "]"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("DELETED")))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+        assertThat(employeeRepository.existsById(employee.getId())).isFalse();
+    }
+
+    @Test
+    void givenPayloadCopiedFromAGet_whenCreateEmployeesInBulk_thenReturnTheNewIds() throws Exception {
+        //given
+        String body = "[{\"id\": 1, \"firstName\": \"John\", \"lastName\": \"Doe\", "
+                + "\"email\": \"JohnDoe@gmail.com\", \"version\": 0}]";
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees/bulk")
+                .contentType(APPLICATION_JSON)
+                .content(body));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("CREATED")));
+        Number id = JsonPath.read(response.andReturn().getResponse().getContentAsString(), "$[0].id");
+        assertThat(id).isNotNull();
+        Employee created = employeeRepository.findById(id.longValue()).orElseThrow();
+        assertThat(created.getEmail()).isEqualTo("JohnDoe@gmail.com");
+        assertThat(created.getVersion()).isEqualTo(0L);
+    }
+
+    /**
+     * Statements run by the last MockMvc request; the SQL monitoring filter resets the count per request.
+     */
+    private static void assertStatementCountAtMost(int max) {
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isLessThanOrEqualTo(max);
+    }
 }
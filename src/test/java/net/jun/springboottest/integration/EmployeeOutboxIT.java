@@ -0,0 +1,167 @@
+package net.jun.springboottest.integration;
+
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.outbox.EmployeeOutboxMessage;
+import net.jun.springboottest.outbox.EmployeeOutboxRelay;
+import net.jun.springboottest.outbox.EmployeeOutboxSink;
+import net.jun.springboottest.repository.EmployeeOutboxRepository;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verify;
+
+// the relay runs once at startup and then only when a test calls it
+@SpringBootTest(properties = {"app.outbox.enabled=true", "app.outbox.relay-interval=1h",
+        "app.employees.changes.purge-interval=2h"})
+class EmployeeOutboxIT extends AbstractContainerBaseTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EmployeeOutboxRepository outboxRepository;
+    @Autowired
+    private EmployeeOutboxRelay relay;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private List<ScheduledTaskHolder> scheduledTaskHolders;
+    @MockBean
+    private EmployeeOutboxSink sink;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        outboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void givenIntervalsInProperties_whenContextStarts_thenTasksAreScheduledAtThem() {
+        //when
+        List<Duration> fixedDelays = scheduledTaskHolders.stream()
+                .flatMap(holder -> holder.getScheduledTasks().stream())
+                .map(ScheduledTask::getTask)
+                .filter(FixedDelayTask.class::isInstance)
+                .map(task -> ((FixedDelayTask) task).getIntervalDuration())
+                .toList();
+
+        //then
+        assertThat(fixedDelays).containsExactlyInAnyOrder(Duration.ofHours(1), Duration.ofHours(2));
+    }
+
+    @Test
+    void givenCreate_whenCommitted_thenOutboxRowCarriesCommittedEmployee() {
+        //when
+        Employee saved = employeeService.saveEmployee(employee("john@example.com"));
+
+        //then
+        List<Map<String, Object>> rows = outboxRows(saved.getId());
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).get("type")).isEqualTo("CREATED");
+        assertThat((String) rows.get(0).get("payload"))
+                .contains("\"email\":\"john@example.com\"")
+                .contains("\"version\":0");
+    }
+
+    @Test
+    void givenPatch_whenCommitted_thenOutboxPayloadIsTheRowThePatchLeft() {
+        //given
+        Employee saved = employeeService.saveEmployee(employee("john@example.com"));
+
+        //when
+        employeeService.patchEmployee(saved.getId(), new EmployeePatch("Johnny", null, null, null));
+
+        //then
+        List<Map<String, Object>> rows = outboxRows(saved.getId());
+        assertThat(rows).extracting(row -> row.get("type")).containsExactly("CREATED", "UPDATED");
+        assertThat((String) rows.get(1).get("payload"))
+                .contains("\"firstName\":\"Johnny\"")
+                .contains("\"version\":1");
+    }
+
+    @Test
+    void givenRolledBackTransaction_whenCreate_thenNoOutboxRow() {
+        //given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        //when
+        Long id = transaction.execute(status -> {
+            Employee saved = employeeService.saveEmployee(employee("john@example.com"));
+            status.setRollbackOnly();
+            return saved.getId();
+        });
+
+        //then
+        assertThat(outboxRows(id)).isEmpty();
+        assertThat(employeeRepository.findById(id)).isEmpty();
+    }
+
+    @Test
+    void givenPendingEvents_whenRelay_thenPublishInOrderAndDelete() throws Exception {
+        //given
+        Employee saved = employeeService.saveEmployee(employee("john@example.com"));
+        employeeService.deleteEmployee(saved.getId(), null);
+
+        //when
+        relay.relay();
+
+        //then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmployeeOutboxMessage>> published = ArgumentCaptor.forClass(List.class);
+        verify(sink).publish(published.capture());
+        assertThat(published.getValue()).extracting(EmployeeOutboxMessage::employeeId)
+                .containsExactly(saved.getId(), saved.getId());
+        assertThat(published.getValue()).extracting(message -> message.type().name())
+                .containsExactly("CREATED", "DELETED");
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void givenFailingSink_whenRelay_thenKeepRowsForTheNextRun() throws Exception {
+        //given
+        Employee saved = employeeService.saveEmployee(employee("john@example.com"));
+        willThrow(new IllegalStateException("sink unavailable")).given(sink).publish(anyList());
+
+        //when
+        relay.relay();
+
+        //then
+        assertThat(outboxRows(saved.getId())).hasSize(1);
+    }
+
+    private List<Map<String, Object>> outboxRows(Long employeeId) {
+        return jdbcTemplate.queryForList("SELECT type, payload FROM employee_outbox WHERE employee_id = ? ORDER BY id",
+                employeeId);
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .build();
+    }
+}
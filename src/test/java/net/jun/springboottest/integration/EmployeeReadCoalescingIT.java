@@ -0,0 +1,152 @@
+package net.jun.springboottest.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static net.jun.springboottest.config.CacheConfig.EMPLOYEES_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Concurrent identical reads through the service, against a real database. The first query is held until every
+ * other caller has joined it, then the statements Hibernate prepared are counted.
+ */
+@SpringBootTest
+class EmployeeReadCoalescingIT extends AbstractContainerBaseTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private EmployeeService employeeService;
+    @SpyBean
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(EMPLOYEES_CACHE).clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenConcurrentReadsOfOneId_whenGetEmployeeById_thenIssueOneSelect() throws Exception {
+        //given
+        String email = "coalesce.by.id." + System.nanoTime() + "@gmail.com";
+        Employee saved = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .build());
+        Long id = saved.getId();
+        doAnswer(heldQuery()).when(employeeRepository).findById(id);
+        long statements = statistics.getPrepareStatementCount();
+
+        //when
+        List<Optional<Employee>> results = runConcurrently("by_id", () -> employeeService.getEmployeeById(id));
+
+        //then
+        assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(1);
+        assertThat(results).hasSize(THREADS)
+                .allSatisfy(result -> assertThat(result).get().extracting(Employee::getEmail)
+                        .isEqualTo(email));
+    }
+
+    @Test
+    void givenConcurrentListReads_whenGetAllEmployees_thenIssueOneSelect() throws Exception {
+        //given
+        String email = "coalesce.all." + System.nanoTime() + "@gmail.com";
+        employeeRepository.save(Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email(email)
+                .build());
+        doAnswer(heldQuery()).when(employeeRepository).findAll();
+        long statements = statistics.getPrepareStatementCount();
+
+        //when
+        List<List<Employee>> results = runConcurrently("all", () -> employeeService.getAllEmployees());
+
+        //then
+        assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(1);
+        assertThat(results).hasSize(THREADS)
+                .allSatisfy(result -> assertThat(result).extracting(Employee::getEmail)
+                        .contains(email));
+    }
+
+    /**
+     * Waits for the release, then runs the query on the repository the spy wraps (a proxy, so it has no real method
+     * of its own to call).
+     */
+    private Answer<?> heldQuery() {
+        Answer<?> repository = mockingDetails(employeeRepository).getMockCreationSettings().getDefaultAnswer();
+        return invocation -> {
+            release.await(30, TimeUnit.SECONDS);
+            return repository.answer(invocation);
+        };
+    }
+
+    /**
+     * Starts every read, waits until all but the first have joined the first's query, then lets it run.
+     */
+    private <T> List<T> runConcurrently(String query, Supplier<T> read) throws Exception {
+        double joinedBefore = joined(query);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(read::get));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (joined(query) - joinedBefore < THREADS - 1) {
+            assertThat(System.nanoTime()).as("callers joined in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        release.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private double joined(String query) {
+        return meterRegistry.get("employee.queries.coalesced").tag("query", query).functionCounter().count();
+    }
+}
@@ -1,5 +1,7 @@
 package net.jun.springboottest.integration;
 
+import net.jun.springboottest.dto.EmployeeContact;
+import net.jun.springboottest.dto.EmployeePatch;
 import net.jun.springboottest.model.Employee;
 import net.jun.springboottest.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,7 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -20,6 +26,9 @@ class EmployeeRepositoryITestContainer extends AbstractContainerBaseTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -203,4 +212,113 @@ class EmployeeRepositoryITestContainer extends AbstractContainerBaseTest {
         assertThat(byNativeSQLWithParam.getLastName()).isEqualTo(employee.getLastName());
         assertThat(byNativeSQLWithParam.getEmail()).isEqualTo(employee.getEmail());
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenEmployeesWithSameName_whenFindAllByName_thenReturnAllOfThem() {
+        //given
+        employeeRepository.save(employee);
+        employeeRepository.save(Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email("John2@gmail.com")
+                .build());
+
+        //when
+        List<Employee> byName = employeeRepository.findAllByName(employee.getFirstName(), employee.getLastName());
+
+        //then
+        assertThat(byName.size()).isEqualTo(2);
+        assertThat(byName.get(0).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenFirstNameAndLastName_whenFindContacts_thenReturnIdAndEmailOnly() {
+        //given
+        employeeRepository.save(employee);
+
+        //when
+        List<EmployeeContact> contacts = employeeRepository.findContactsByFirstNameAndLastNameOrderById(
+                employee.getFirstName(), employee.getLastName());
+
+        //then
+        assertThat(contacts.size()).isEqualTo(1);
+        assertThat(contacts.get(0).getId()).isEqualTo(employee.getId());
+        assertThat(contacts.get(0).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenPersistedEmployee_whenPatch_thenUpdateOnlyGivenColumnsAndBumpVersion() {
+        //given
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+        Employee saved = employeeRepository.findById(employee.getId()).orElseThrow();
+        entityManager.clear();
+
+        //when
+        int updated = employeeRepository.patch(saved.getId(), new EmployeePatch("Johnny", null, null, saved.getVersion()));
+        entityManager.clear();
+
+        //then
+        Employee patched = employeeRepository.findById(saved.getId()).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(patched.getFirstName()).isEqualTo("Johnny");
+        assertThat(patched.getLastName()).isEqualTo(employee.getLastName());
+        assertThat(patched.getEmail()).isEqualTo(employee.getEmail());
+        assertThat(patched.getVersion()).isEqualTo(saved.getVersion() + 1);
+        assertThat(patched.getUpdatedAt()).isAfterOrEqualTo(saved.getUpdatedAt());
+    }
+
+    @Test
+    void givenStaleVersion_whenPatch_thenLeaveRowUntouched() {
+        //given
+        Employee saved = employeeRepository.saveAndFlush(employee);
+        employeeRepository.patch(saved.getId(), new EmployeePatch(null, "Smith", null, saved.getVersion()));
+        entityManager.clear();
+
+        //when
+        int updated = employeeRepository.patch(saved.getId(), new EmployeePatch("Johnny", null, null, saved.getVersion()));
+        entityManager.clear();
+
+        //then
+        Employee current = employeeRepository.findById(saved.getId()).orElseThrow();
+        assertThat(updated).isEqualTo(0);
+        assertThat(current.getFirstName()).isEqualTo(employee.getFirstName());
+        assertThat(current.getLastName()).isEqualTo("Smith");
+        assertThat(current.getVersion()).isEqualTo(saved.getVersion() + 1);
+    }
+
+    @Test
+    void givenUnknownId_whenPatch_thenReturnZero() {
+        //when
+        int updated = employeeRepository.patch(Long.MAX_VALUE, new EmployeePatch("Johnny", null, null, null));
+
+        //then
+        assertThat(updated).isEqualTo(0);
+    }
+
+    @Test
+    void givenOldAndRecentTombstones_whenDeleteTombstonesBefore_thenRemoveOnlyOldOnes() {
+        //given
+        Employee old = employeeRepository.save(employee);
+        Employee recent = employeeRepository.save(Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("Jane@gmail.com")
+                .build());
+        Instant cutoff = Instant.now().minus(Duration.ofDays(7)).truncatedTo(ChronoUnit.MICROS);
+        employeeRepository.markDeletedByIds(List.of(old.getId()), cutoff.minus(Duration.ofDays(1)));
+        employeeRepository.markDeletedByIds(List.of(recent.getId()), Instant.now().truncatedTo(ChronoUnit.MICROS));
+        entityManager.clear();
+
+        //when
+        int purged = employeeRepository.deleteTombstonesBefore(cutoff, 10);
+
+        //then
+        // tombstones left by other tests stay in the table, so look only at these two
+        List<Long> remaining = employeeRepository.findChangesSince(cutoff.minus(Duration.ofDays(2)), 0,
+                Instant.now().plusSeconds(1), 1000).stream().map(Employee::getId).toList();
+        assertThat(purged).isEqualTo(1);
+        assertThat(remaining.contains(recent.getId())).isTrue();
+        assertThat(remaining.contains(old.getId())).isFalse();
+    }
+}
@@ -0,0 +1,99 @@
+package net.jun.springboottest.integration;
+
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeEmailColumnInitializer;
+import net.jun.springboottest.repository.EmployeeIdSequenceInitializer;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The startup migrations, run again against a table put back in the shape the baseline schema left it in.
+ */
+@SpringBootTest
+class EmployeeSchemaMigrationIT extends AbstractContainerBaseTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EmployeeEmailColumnInitializer emailColumnInitializer;
+    @Autowired
+    private EmployeeIdSequenceInitializer idSequenceInitializer;
+
+    @Test
+    void givenBaselineNotNullEmailColumn_whenMigrate_thenDeleteReleasesTheEmail() throws Exception {
+        //given
+        // the baseline schema could not hold a row without an email
+        // the pool hands out connections with auto-commit off
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("DELETE FROM employees WHERE email IS NULL"));
+        jdbcTemplate.execute("ALTER TABLE employees MODIFY email VARCHAR(255) NOT NULL");
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("migrated." + System.nanoTime() + "@gmail.com")
+                .build());
+
+        //when
+        emailColumnInitializer.afterPropertiesSet();
+        employeeService.deleteEmployee(employee.getId(), null);
+
+        //then
+        assertThat(jdbcTemplate.queryForObject("SELECT is_nullable FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'employees' AND column_name = 'email'",
+                String.class)).isEqualTo("YES");
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM employees WHERE id = ?", String.class,
+                employee.getId())).isNull();
+        assertThat(employeeRepository.existsById(employee.getId())).isFalse();
+    }
+
+    @Test
+    void givenSequenceTableStartingAtOne_whenMigrate_thenNextBlockIsPastExistingIds() throws Exception {
+        //given
+        Employee existing = employeeService.saveEmployee(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("sequence." + System.nanoTime() + "@gmail.com")
+                .build());
+        // as hbm2ddl update creates it next to a table whose ids came from IDENTITY
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE employees_seq SET next_val = 1"));
+
+        //when
+        idSequenceInitializer.afterPropertiesSet();
+
+        //then
+        Long nextValue = jdbcTemplate.queryForObject("SELECT next_val FROM employees_seq", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM employees", Long.class);
+        // the next block is nextValue - 49 .. nextValue
+        assertThat(nextValue - Employee.ID_BLOCK_SIZE + 1).isGreaterThan(maxId);
+        assertThat(maxId).isGreaterThanOrEqualTo(existing.getId());
+    }
+
+    @Test
+    void givenSequenceAlreadyPastExistingIds_whenMigrate_thenLeaveIt() throws Exception {
+        //given
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM employees", Long.class);
+        long ahead = maxId + 10 * Employee.ID_BLOCK_SIZE;
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE employees_seq SET next_val = ?", ahead));
+
+        //when
+        idSequenceInitializer.afterPropertiesSet();
+
+        //then
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM employees_seq", Long.class)).isEqualTo(ahead);
+    }
+}
@@ -0,0 +1,94 @@
+package net.jun.springboottest.integration;
+
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeSearchIT extends AbstractContainerBaseTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee john;
+    private Employee jane;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        // the FULLTEXT index is maintained at commit, so the rows go in through the service's own transactions
+        john = employeeService.saveEmployee(Employee.builder()
+                .firstName("John")
+                .lastName("Smith")
+                .email("john.smith@acme.com")
+                .build());
+        jane = employeeService.saveEmployee(Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@example.org")
+                .build());
+    }
+
+    @Test
+    void givenStartedApplication_whenReadIndexes_thenFullTextIndexExists() {
+        //when
+        List<String> columns = jdbcTemplate.queryForList("SELECT column_name FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'employees' AND index_name = 'ft_employees_search' "
+                + "ORDER BY seq_in_index", String.class);
+
+        //then
+        assertThat(columns).containsExactly("first_name", "last_name", "email");
+    }
+
+    @Test
+    void givenNamePrefixes_whenSearchEmployees_thenFindMatchingEmployee() {
+        //when
+        List<Employee> found = employeeService.searchEmployees("jo smi", 10);
+
+        //then
+        assertThat(found).extracting(Employee::getId).containsExactly(john.getId());
+    }
+
+    @Test
+    void givenEmailDomain_whenSearchEmployees_thenFindEmployeeDespiteStopword() {
+        //when
+        List<Employee> found = employeeService.searchEmployees("acme.com", 10);
+
+        //then
+        assertThat(found).extracting(Employee::getId).containsExactly(john.getId());
+    }
+
+    @Test
+    void givenFullEmail_whenSearchEmployees_thenFindOnlyThatEmployee() {
+        //when
+        List<Employee> found = employeeService.searchEmployees("jane.doe@example.org", 10);
+
+        //then
+        assertThat(found).extracting(Employee::getId).containsExactly(jane.getId());
+    }
+
+    @Test
+    void givenDeletedEmployee_whenSearchEmployees_thenSkipTombstone() {
+        //given
+        employeeService.deleteEmployee(john.getId(), null);
+
+        //when
+        List<Employee> found = employeeService.searchEmployees("john", 10);
+
+        //then
+        assertThat(found).isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+package net.jun.springboottest.integration;
+
+import net.jun.springboottest.datasource.ReadWriteRoutingDataSource;
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest
+class ReadWriteRoutingIT extends AbstractReplicaContainerBaseTest {
+
+    private static final String REPLICA = "replica-0";
+
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = jdbcTemplate(MY_SQL_CONTAINER.getJdbcUrl());
+        replica = jdbcTemplate(REPLICA_CONTAINER.getJdbcUrl());
+        replica.update("DELETE FROM employees");
+        employeeRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.markLagging(REPLICA, false);
+    }
+
+    @Test
+    void givenRowOnlyOnReplica_whenReadOnlyFinder_thenServedByReplica() {
+        //given
+        replica.update("INSERT INTO employees (id, first_name, last_name, email) VALUES (1, 'John', 'Doe', 'JohnDoe@gmail.com')");
+
+        //when
+        List<Employee> employees = employeeService.getEmployeesByName("John", "Doe");
+
+        //then
+        assertThat(employees.size()).isEqualTo(1);
+    }
+
+    @Test
+    void givenNewEmployee_whenSaveEmployee_thenWrittenToPrimary() {
+        //given
+        Employee employee = Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("JohnDoe@gmail.com")
+                .build();
+
+        //when
+        employeeService.saveEmployee(employee);
+
+        //then
+        // deleteAll only tombstones rows, so count this employee rather than the table
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM employees WHERE email = ?", Integer.class,
+                employee.getEmail())).isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM employees WHERE email = ?", Integer.class,
+                employee.getEmail())).isEqualTo(0);
+    }
+
+    @Test
+    void givenLaggingReplica_whenReadOnlyFinder_thenServedByPrimary() {
+        //given
+        replica.update("INSERT INTO employees (id, first_name, last_name, email) VALUES (1, 'John', 'Doe', 'JohnDoe@gmail.com')");
+        routingDataSource.markLagging(REPLICA, true);
+
+        //when
+        List<Employee> employees = employeeService.getEmployeesByName("John", "Doe");
+
+        //then
+        assertThat(employees.size()).isEqualTo(0);
+    }
+
+    @Test
+    void givenReplicaBehindAPatch_whenGetEmployeeById_thenCacheThePatchedRowFromPrimary() {
+        //given
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("patched.replica@gmail.com")
+                .build());
+        replica.update("INSERT INTO employees (id, first_name, last_name, email) VALUES (?, 'John', 'Doe', ?)",
+                employee.getId(), employee.getEmail());
+        employeeService.patchEmployee(employee.getId(), new EmployeePatch("Jane", null, null, null));
+
+        //when
+        Optional<Employee> read = employeeService.getEmployeeById(employee.getId());
+
+        //then
+        assertThat(read.map(Employee::getFirstName)).isEqualTo(Optional.of("Jane"));
+        assertThat(employeeService.getEmployeeById(employee.getId()).map(Employee::getFirstName))
+                .isEqualTo(Optional.of("Jane"));
+    }
+
+    @Test
+    void givenReplicaBehindADelete_whenGetEmployeeById_thenNotFound() {
+        //given
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("deleted.replica@gmail.com")
+                .build());
+        replica.update("INSERT INTO employees (id, first_name, last_name, email) VALUES (?, 'John', 'Doe', ?)",
+                employee.getId(), employee.getEmail());
+        employeeService.getEmployeeById(employee.getId());
+        employeeService.deleteEmployee(employee.getId(), null);
+
+        //when
+        Optional<Employee> read = employeeService.getEmployeeById(employee.getId());
+
+        //then
+        assertThat(read.isPresent()).isFalse();
+    }
+
+    private static JdbcTemplate jdbcTemplate(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "username", "password"));
+    }
+}
@@ -0,0 +1,71 @@
+package net.jun.springboottest.outbox;
+
+import net.jun.springboottest.event.EmployeeChangedEvent;
+import net.jun.springboottest.model.EmployeeOutboxEvent;
+import net.jun.springboottest.repository.EmployeeOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeOutboxRelayTest {
+
+    @Mock
+    private EmployeeOutboxRepository outboxRepository;
+    @Mock
+    private EmployeeOutboxSink sink;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeOutboxRelay relay;
+    private List<EmployeeOutboxEvent> batch;
+
+    @BeforeEach
+    void setUp() {
+        relay = new EmployeeOutboxRelay(outboxRepository, sink, transactionManager, 10);
+        Instant createdAt = Instant.now();
+        batch = List.of(
+                new EmployeeOutboxEvent(1L, 7L, EmployeeChangedEvent.Type.CREATED, "{\"id\":7}", createdAt),
+                new EmployeeOutboxEvent(2L, 7L, EmployeeChangedEvent.Type.DELETED, null, createdAt));
+    }
+
+    @Test
+    void givenPendingEvents_whenRelay_thenPublishInOrderAndDelete() throws Exception {
+        //given
+        given(outboxRepository.findNextBatch(any(Pageable.class))).willReturn(batch);
+
+        //when
+        relay.relay();
+
+        //then
+        verify(sink).publish(List.of(
+                new EmployeeOutboxMessage(1L, 7L, EmployeeChangedEvent.Type.CREATED, "{\"id\":7}", batch.get(0).getCreatedAt()),
+                new EmployeeOutboxMessage(2L, 7L, EmployeeChangedEvent.Type.DELETED, null, batch.get(1).getCreatedAt())));
+        verify(outboxRepository).deleteAllInBatch(batch);
+    }
+
+    @Test
+    void givenFailingSink_whenRelay_thenKeepEventsForNextRun() throws Exception {
+        //given
+        given(outboxRepository.findNextBatch(any(Pageable.class))).willReturn(batch);
+        willThrow(new IOException("disk full")).given(sink).publish(anyList());
+
+        //when
+        relay.relay();
+
+        //then
+        verify(outboxRepository, never()).deleteAllInBatch(anyList());
+        assertThat(relay.getLagSeconds()).isZero();
+    }
+}
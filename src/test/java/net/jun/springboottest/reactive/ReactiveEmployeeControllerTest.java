@@ -0,0 +1,90 @@
+package net.jun.springboottest.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@WebFluxTest(controllers = ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    private ReactiveEmployee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = ReactiveEmployee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("JohnDoe@gmail.com")
+                .build();
+    }
+
+    @Test
+    void givenListOfEmployee_whenGetAllEmployee_thenReturnEmployeeList() {
+        //given
+        ReactiveEmployee employee2 = ReactiveEmployee.builder()
+                .id(2L)
+                .firstName("Kong")
+                .lastName("Dosh")
+                .email("KongDosh@gmail.com")
+                .build();
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, employee2));
+
+        //when
+        webTestClient.get().uri("/api/employees")
+                .accept(APPLICATION_JSON)
+                .exchange()
+
+                //then
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(2)
+                .jsonPath("$[1].email").isEqualTo(employee2.getEmail());
+    }
+
+    @Test
+    void givenEmployeeObject_whenGetEmployeeByID_thenReturnEmployee() {
+        //given
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee));
+
+        //when
+        webTestClient.get().uri("/api/employees/{id}", 1L)
+                .exchange()
+
+                //then
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenEmployeeObject_whenGetEmployeeByID_thenNotFoundEmployeeObject() {
+        //given
+        given(employeeService.getEmployeeById(anyLong())).willReturn(Mono.empty());
+
+        //when
+        webTestClient.get().uri("/api/employees/{id}", 1L)
+                .exchange()
+
+                //then
+                .expectStatus().isNotFound();
+    }
+}
@@ -1,12 +1,15 @@
 package net.jun.springboottest.repository;
 
+import net.jun.springboottest.dto.EmployeeContact;
 import net.jun.springboottest.model.Employee;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -17,6 +20,9 @@ class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
     @BeforeEach
     void setUp() {
@@ -199,4 +205,61 @@ class EmployeeRepositoryTest {
         assertThat(byNativeSQLWithParam.getLastName()).isEqualTo(employee.getLastName());
         assertThat(byNativeSQLWithParam.getEmail()).isEqualTo(employee.getEmail());
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenEmployeesWithSameName_whenFindAllByName_thenReturnAllOfThem() {
+        //given
+        employeeRepository.save(employee);
+        employeeRepository.save(Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email("John2@gmail.com")
+                .build());
+
+        //when
+        List<Employee> byName = employeeRepository.findAllByName(employee.getFirstName(), employee.getLastName());
+
+        //then
+        assertThat(byName.size()).isEqualTo(2);
+        assertThat(byName.get(0).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenFirstNameAndLastName_whenFindContacts_thenReturnIdAndEmailOnly() {
+        //given
+        employeeRepository.save(employee);
+
+        //when
+        List<EmployeeContact> contacts = employeeRepository.findContactsByFirstNameAndLastNameOrderById(
+                employee.getFirstName(), employee.getLastName());
+
+        //then
+        assertThat(contacts.size()).isEqualTo(1);
+        assertThat(contacts.get(0).getId()).isEqualTo(employee.getId());
+        assertThat(contacts.get(0).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    void givenDeletedEmployee_whenFindChangesSince_thenReturnTombstone() {
+        //given
+        Employee kept = employeeRepository.save(Employee.builder()
+                .firstName("Kong")
+                .lastName("Dosh")
+                .email("KongDosh@gmail.com")
+                .build());
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.markDeletedById(employee.getId(), Instant.now());
+        entityManager.clear();
+
+        //when
+        List<Employee> changes = employeeRepository.findChangesSince(Instant.EPOCH, 0L,
+                Instant.now().plusSeconds(60), 10);
+
+        //then
+        assertThat(changes.size()).isEqualTo(2);
+        assertThat(changes.get(0).getId()).isEqualTo(kept.getId());
+        assertThat(changes.get(1).isDeleted()).isTrue();
+        assertThat(changes.get(1).getEmail()).isNull();
+        assertThat(employeeRepository.findById(employee.getId()).isPresent()).isFalse();
+    }
+}
@@ -0,0 +1,147 @@
+package net.jun.springboottest.service.impl;
+
+import jakarta.persistence.EntityManager;
+import net.jun.springboottest.changes.ChangeFeedProperties;
+import net.jun.springboottest.config.CacheConfig;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeJsonExporter;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static net.jun.springboottest.config.CacheConfig.EMPLOYEES_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The service behind its caching proxy, with the cache configured as in production and a mocked repository.
+ */
+@SpringBootTest(classes = {EmployeeServiceImpl.class, EmployeeReadCoalescer.class, CacheConfig.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+class EmployeeServiceCachingTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private EmployeeJsonExporter employeeJsonExporter;
+
+    @MockBean
+    private ChangeFeedProperties changeFeed;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(EMPLOYEES_CACHE).clear();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("JohnDoe@gmail.com")
+                .version(0L)
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+    }
+
+    @Test
+    void givenCachedEmployee_whenGetEmployeeByIdAgain_thenSkipRepository() {
+        //given
+        employeeService.getEmployeeById(1L);
+
+        //when
+        Optional<Employee> cached = employeeService.getEmployeeById(1L);
+
+        //then
+        assertThat(cached).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void givenUnknownId_whenGetEmployeeByIdTwice_thenDoNotCacheTheMiss() {
+        //given
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+
+        //when
+        employeeService.getEmployeeById(2L);
+        employeeService.getEmployeeById(2L);
+
+        //then
+        verify(employeeRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void givenUpdatedEmployee_whenGetEmployeeById_thenServeUpdateFromCache() {
+        //given
+        Employee updated = Employee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("John.Doe@gmail.com")
+                .version(1L)
+                .build();
+        given(employeeRepository.save(any(Employee.class))).willReturn(updated);
+        employeeService.updateEmployee(updated);
+
+        //when
+        Optional<Employee> cached = employeeService.getEmployeeById(1L);
+
+        //then
+        assertThat(cached).contains(updated);
+        verify(employeeRepository, never()).findById(1L);
+    }
+
+    @Test
+    void givenCachedEmployee_whenDeleteEmployee_thenEvict() {
+        //given
+        employeeService.getEmployeeById(1L);
+        given(employeeRepository.markDeletedById(eq(1L), any(Instant.class))).willReturn(1);
+
+        //when
+        employeeService.deleteEmployee(1L, null);
+        employeeService.getEmployeeById(1L);
+
+        //then
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void givenCachedEmployee_whenDeleteEmployeesInBulk_thenEvict() {
+        //given
+        employeeService.getEmployeeById(1L);
+        given(employeeRepository.markDeletedByIds(anyCollection(), any(Instant.class))).willReturn(1);
+
+        //when
+        employeeService.deleteEmployees(List.of(1L));
+        employeeService.getEmployeeById(1L);
+
+        //then
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+}
@@ -1,16 +1,33 @@
 package net.jun.springboottest.service.impl;
 
-import net.jun.springboottest.exception.ResourceNotFoundException;
+import net.jun.springboottest.changes.ChangeFeedProperties;
+import net.jun.springboottest.dto.EmployeeBatch;
+import net.jun.springboottest.dto.EmployeeBulkResult;
+import net.jun.springboottest.dto.EmployeeChangeBatch;
+import net.jun.springboottest.dto.EmployeePatch;
+import net.jun.springboottest.event.EmployeeChangedEvent;
+import net.jun.springboottest.exception.InvalidResourceException;
+import net.jun.springboottest.exception.ResourceAlreadyExistsException;
+import net.jun.springboottest.exception.WatermarkExpiredException;
 import net.jun.springboottest.model.Employee;
 import net.jun.springboottest.repository.EmployeeRepository;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +39,13 @@ class EmployeeServiceImplTest {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private EmployeeReadCoalescer readCoalescer = new EmployeeReadCoalescer();
+    @Spy
+    private ChangeFeedProperties changeFeed =
+            new ChangeFeedProperties(Duration.ofSeconds(5), Duration.ofDays(7), Duration.ofHours(1), 1000);
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -39,8 +63,7 @@ class EmployeeServiceImplTest {
 
     @Test
     void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         //when
         var savedEmployee = employeeService.saveEmployee(employee);
@@ -52,15 +75,96 @@ class EmployeeServiceImplTest {
     @Test
     void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
         //given
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry", "23000", 1062),
+                        "employees." + Employee.EMAIL_UNIQUE_INDEX)));
 
         //when
         Assertions.assertThatThrownBy(() -> employeeService.saveEmployee(employee))
                 //then
-                .isInstanceOf(ResourceNotFoundException.class)
+                .isInstanceOf(ResourceAlreadyExistsException.class)
                 .hasMessageContaining("Employee already exists with email: " + employee.getEmail());
+    }
 
-        verify(employeeRepository, never()).save(any(Employee.class));
+    @Test
+    void givenBlankEmail_whenSaveEmployee_thenRejectWithoutInsert() {
+        //given
+        employee.setEmail(" ");
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.saveEmployee(employee))
+                //then
+                .isInstanceOf(InvalidResourceException.class);
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void givenNullEmail_whenSaveEmployee_thenRejectWithoutInsert() {
+        //given
+        employee.setEmail(null);
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.saveEmployee(employee))
+                //then
+                .isInstanceOf(InvalidResourceException.class);
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void givenExistingAndRepeatedEmails_whenSaveEmployees_thenInsertOnlyNewEmployees() {
+        //given
+        Employee newEmployee = Employee.builder()
+                .firstName("Kim")
+                .lastName("Sejun")
+                .email("new@gmail.com")
+                .build();
+        Employee repeated = Employee.builder()
+                .firstName("Kim")
+                .lastName("Sejun")
+                .email("NEW@gmail.com")
+                .build();
+        given(employeeRepository.findExistingEmails(anyList())).willReturn(List.of(employee.getEmail()));
+        given(employeeRepository.save(newEmployee)).willAnswer(invocation -> {
+            newEmployee.setId(2L);
+            return newEmployee;
+        });
+
+        //when
+        List<EmployeeBulkResult> results = employeeService.saveEmployees(List.of(employee, newEmployee, repeated));
+
+        //then
+        assertThat(results.get(0).status()).isEqualTo(EmployeeBulkResult.Status.DUPLICATE);
+        assertThat(results.get(1).status()).isEqualTo(EmployeeBulkResult.Status.CREATED);
+        assertThat(results.get(1).id()).isEqualTo(2L);
+        assertThat(results.get(2).status()).isEqualTo(EmployeeBulkResult.Status.DUPLICATE);
+        verify(employeeRepository, times(1)).save(any(Employee.class));
+    }
+
+    @Test
+    void givenEmployeeWithVersion_whenSaveEmployees_thenInsertAsNew() {
+        //given
+        Employee copied = Employee.builder()
+                .id(7L)
+                .firstName("Kim")
+                .lastName("Sejun")
+                .email("new@gmail.com")
+                .version(0L)
+                .build();
+        given(employeeRepository.findExistingEmails(anyList())).willReturn(List.of());
+        given(employeeRepository.save(copied)).willAnswer(invocation -> {
+            Employee inserted = invocation.getArgument(0);
+            assertThat(inserted.getId()).isNull();
+            assertThat(inserted.getVersion()).isNull();
+            inserted.setId(2L);
+            return inserted;
+        });
+
+        //when
+        List<EmployeeBulkResult> results = employeeService.saveEmployees(List.of(copied));
+
+        //then
+        assertThat(results.get(0).status()).isEqualTo(EmployeeBulkResult.Status.CREATED);
+        assertThat(results.get(0).id()).isEqualTo(2L);
     }
 
     @Test
@@ -81,6 +185,25 @@ class EmployeeServiceImplTest {
         assertThat(employeeService.getAllEmployees().size()).isEqualTo(2);
     }
 
+    @Test
+    void givenIds_whenGetEmployeesByIds_thenReturnInRequestedOrderWithMissingIds() {
+        //given
+        Employee employee2 = Employee.builder()
+                .id(2L)
+                .firstName("Kim")
+                .lastName("Sejun")
+                .email("test2@gmail.com")
+                .build();
+        given(employeeRepository.findAllById(List.of(2L, 3L, 1L))).willReturn(List.of(employee, employee2));
+
+        //when
+        EmployeeBatch batch = employeeService.getEmployeesByIds(List.of(2L, 3L, 1L, 2L));
+
+        //then
+        Assertions.assertThat(batch.employees()).containsExactly(employee2, employee);
+        Assertions.assertThat(batch.missing()).containsExactly(3L);
+    }
+
     @Test
     void givenEmployeeList_whenFindAll_thenReturnEmptyList() {
         //given
@@ -110,15 +233,234 @@ class EmployeeServiceImplTest {
     }
 
     @Test
-    void givenEmployeeId_whenDeleteEmployee_thenExecuteDeleteByIdMethod() {
+    void givenNullEmail_whenUpdateEmployee_thenRejectWithoutUpdate() {
+        //given
+        employee.setEmail(null);
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.updateEmployee(employee))
+                //then
+                .isInstanceOf(InvalidResourceException.class);
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void givenBlankEmail_whenUpdateEmployee_thenRejectWithoutUpdate() {
+        //given
+        employee.setEmail("");
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.updateEmployee(employee))
+                //then
+                .isInstanceOf(InvalidResourceException.class);
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    void givenMatchingVersion_whenUpdateEmployeeById_thenUpdateRowReadInSameTransaction() {
+        //given
+        employee.setVersion(3L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        Employee replacement = Employee.builder()
+                .firstName("Jane")
+                .lastName("Roe")
+                .email("jane@gmail.com")
+                .build();
+
+        //when
+        Optional<Employee> updated = employeeService.updateEmployee(1L, replacement, 3L);
+
+        //then
+        assertThat(updated).contains(employee);
+        assertThat(employee.getFirstName()).isEqualTo("Jane");
+        assertThat(employee.getEmail()).isEqualTo("jane@gmail.com");
+        verify(employeeRepository).saveAndFlush(employee);
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateEmployeeById_thenThrowsWithoutUpdate() {
+        //given
+        employee.setVersion(4L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.updateEmployee(1L, employee, 3L))
+                //then
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void givenUnknownId_whenUpdateEmployeeById_thenReturnEmpty() {
+        //given
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+
+        //when
+        Optional<Employee> updated = employeeService.updateEmployee(1L, employee, null);
+
+        //then
+        assertThat(updated).isEmpty();
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void givenBlankEmail_whenPatchEmployee_thenRejectWithoutUpdate() {
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.patchEmployee(1L, new EmployeePatch(null, null, " ", null)))
+                //then
+                .isInstanceOf(InvalidResourceException.class);
+        verify(employeeRepository, never()).patch(anyLong(), any(EmployeePatch.class));
+    }
+
+    @Test
+    void givenWatermarkOlderThanTombstoneRetention_whenGetChangesSince_thenThrowsWatermarkExpired() {
+        //given
+        Instant since = Instant.now().minus(Duration.ofDays(8));
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.getChangesSince(since, 1L, 100))
+                //then
+                .isInstanceOf(WatermarkExpiredException.class);
+        verify(employeeRepository, never()).findChangesSince(any(Instant.class), anyLong(), any(Instant.class), anyInt());
+    }
+
+    @Test
+    void givenStartOfFeed_whenGetChangesSince_thenQueryUpToSettleTime() {
+        //given
+        given(employeeRepository.findChangesSince(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(100)))
+                .willReturn(List.of(employee));
+        Instant before = Instant.now();
+
+        //when
+        EmployeeChangeBatch changes = employeeService.getChangesSince(Instant.EPOCH, 0L, 100);
+
+        //then
+        assertThat(changes.employees().size()).isEqualTo(1);
+        ArgumentCaptor<Instant> until = ArgumentCaptor.forClass(Instant.class);
+        verify(employeeRepository).findChangesSince(eq(Instant.EPOCH), eq(0L), until.capture(), eq(100));
+        Assertions.assertThat(until.getValue()).isBefore(before.minus(Duration.ofSeconds(4)));
+        assertThat(changes.until()).isEqualTo(until.getValue());
+    }
+
+    @Test
+    void givenStaleVersion_whenPatchEmployee_thenThrowsOptimisticLockingFailure() {
+        //given
+        EmployeePatch patch = new EmployeePatch("Updated Sejun", null, null, 3L);
+        given(employeeRepository.patch(1L, patch)).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.patchEmployee(1L, patch))
+                //then
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void givenUnknownId_whenPatchEmployee_thenReturnFalse() {
+        //given
+        EmployeePatch patch = new EmployeePatch("Updated Sejun", null, null, null);
+        given(employeeRepository.patch(1L, patch)).willReturn(0);
+
+        //when
+        boolean patched = employeeService.patchEmployee(1L, patch);
+
+        //then
+        assertThat(patched).isFalse();
+        verify(employeeRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void givenEmployeeId_whenDeleteEmployee_thenMarkDeletedWithSingleStatement() {
         //given
         long id = 1L;
-        willDoNothing().given(employeeRepository).deleteById(id);
+        given(employeeRepository.markDeletedById(eq(id), any(Instant.class))).willReturn(1);
+
+        //when
+        boolean deleted = employeeService.deleteEmployee(id, null);
+
+        //then
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, times(1)).markDeletedById(eq(id), any(Instant.class));
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(eventPublisher).publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, id, null));
+    }
+
+    @Test
+    void givenStaleVersion_whenDeleteEmployee_thenThrowsOptimisticLockingFailure() {
+        //given
+        given(employeeRepository.markDeletedByIdAndVersion(eq(1L), eq(2L), any(Instant.class))).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when
+        Assertions.assertThatThrownBy(() -> employeeService.deleteEmployee(1L, 2L))
+                //then
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void givenSomeUnknownIds_whenDeleteEmployeesInBulk_thenReportEachIdFromStampedTombstones() {
+        //given
+        given(employeeRepository.markDeletedByIds(anyCollection(), any(Instant.class))).willReturn(1);
+        given(employeeRepository.findIdsDeletedAt(anyCollection(), any(Instant.class))).willReturn(List.of(1L));
+
+        //when
+        List<EmployeeBulkResult> results = employeeService.deleteEmployees(List.of(1L, 2L, 1L));
+
+        //then
+        assertThat(results.size()).isEqualTo(3);
+        assertThat(results.get(0).status()).isEqualTo(EmployeeBulkResult.Status.DELETED);
+        assertThat(results.get(1).status()).isEqualTo(EmployeeBulkResult.Status.NOT_FOUND);
+        assertThat(results.get(2).status()).isEqualTo(EmployeeBulkResult.Status.DELETED);
+        verify(eventPublisher, times(1)).publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 1L, null));
+        verify(eventPublisher, never()).publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 2L, null));
+    }
+
+    @Test
+    void givenOnlyKnownIds_whenDeleteEmployeesInBulk_thenSkipTombstoneLookup() {
+        //given
+        given(employeeRepository.markDeletedByIds(anyCollection(), any(Instant.class))).willReturn(2);
 
         //when
-        employeeService.deleteEmployee(id);
+        List<EmployeeBulkResult> results = employeeService.deleteEmployees(List.of(1L, 2L));
+
+        //then
+        assertThat(results.get(0).status()).isEqualTo(EmployeeBulkResult.Status.DELETED);
+        assertThat(results.get(1).status()).isEqualTo(EmployeeBulkResult.Status.DELETED);
+        verify(employeeRepository, never()).findIdsDeletedAt(anyCollection(), any(Instant.class));
+    }
+
+    @Test
+    void givenFreeText_whenSearchEmployees_thenQueryEveryWordAsRequiredPrefix() {
+        //given
+        given(employeeRepository.search("+jo* +smi* +gmail*", 10)).willReturn(List.of(employee));
+
+        //when
+        List<Employee> found = employeeService.searchEmployees("jo -smi@gmail", 10);
+
+        //then
+        assertThat(found.size()).isEqualTo(1);
+    }
+
+    @Test
+    void givenEmailDomain_whenSearchEmployees_thenLeaveStopwordsOptional() {
+        //given
+        given(employeeRepository.search("+john* +acme* com*", 10)).willReturn(List.of(employee));
+
+        //when
+        List<Employee> found = employeeService.searchEmployees("john@acme.com", 10);
+
+        //then
+        assertThat(found.size()).isEqualTo(1);
+    }
+
+    @Test
+    void givenOnlyOperators_whenSearchEmployees_thenReturnEmptyWithoutQuery() {
+        //when
+        List<Employee> found = employeeService.searchEmployees("+-*\"", 10);
 
         //then
-        verify(employeeRepository, times(1)).deleteById(id);
+        assertThat(found.size()).isEqualTo(0);
+        verify(employeeRepository, never()).search(anyString(), anyInt());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package net.jun.springboottest.service.impl;
+
+import jakarta.persistence.EntityManager;
+import net.jun.springboottest.cache.SharedCacheStore;
+import net.jun.springboottest.changes.ChangeFeedProperties;
+import net.jun.springboottest.config.CacheConfig;
+import net.jun.springboottest.config.TwoLevelCacheConfig;
+import net.jun.springboottest.model.Employee;
+import net.jun.springboottest.repository.EmployeeJsonExporter;
+import net.jun.springboottest.repository.EmployeeRepository;
+import net.jun.springboottest.service.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static net.jun.springboottest.config.CacheConfig.EMPLOYEES_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The service behind its caching proxy with the two-level cache, its shared tier written to directly the way
+ * another node's {@code @CachePut} would.
+ */
+@SpringBootTest(classes = {EmployeeServiceImpl.class, EmployeeReadCoalescer.class, CacheConfig.class,
+        TwoLevelCacheConfig.class}, properties = "app.cache.two-level.enabled=true")
+class EmployeeServiceTwoLevelCachingTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private SharedCacheStore sharedCacheStore;
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private EmployeeJsonExporter employeeJsonExporter;
+
+    @MockBean
+    private ChangeFeedProperties changeFeed;
+
+    @Test
+    void givenWriteOnAnotherNodeDuringMiss_whenGetEmployeeById_thenStaleRowDoesNotReplaceIt() {
+        //given
+        Employee stale = employee(1L, "John", 0L);
+        Employee written = employee(1L, "Jane", 1L);
+        given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+            sharedCacheStore.put(EMPLOYEES_CACHE, 1L, written, Duration.ofMinutes(1));
+            return Optional.of(stale);
+        });
+
+        //when
+        Optional<Employee> first = employeeService.getEmployeeById(1L);
+        Optional<Employee> second = employeeService.getEmployeeById(1L);
+
+        //then
+        assertThat(first).contains(stale);
+        assertThat(second).contains(written);
+        assertThat(sharedCacheStore.get(EMPLOYEES_CACHE, 1L)).isEqualTo(written);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void givenMiss_whenGetEmployeeById_thenFillSharedTier() {
+        //given
+        Employee employee = employee(2L, "John", 0L);
+        given(employeeRepository.findById(2L)).willReturn(Optional.of(employee));
+
+        //when
+        employeeService.getEmployeeById(2L);
+
+        //then
+        assertThat(sharedCacheStore.get(EMPLOYEES_CACHE, 2L)).isEqualTo(employee);
+    }
+
+    private static Employee employee(Long id, String firstName, Long version) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("Doe")
+                .email(firstName + "Doe@gmail.com")
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+-- hbm2ddl only runs against the primary, and the application reads from the replica while it starts
+CREATE TABLE employees (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255),
+    version    BIGINT       NOT NULL DEFAULT 0,
+    updated_at DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    deleted    BIT          NOT NULL DEFAULT 0
+);